@@ -0,0 +1,93 @@
+package com.example.E_Wallet.Controllers;
+
+import com.example.E_Wallet.DTO.BulkRowResultDTO;
+import com.example.E_Wallet.Service.BulkProvisioningService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+@RestController
+public class AdminBulkController {
+
+    @Autowired
+    private BulkProvisioningService bulkProvisioningService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Applies to these endpoints only; every other async request keeps the default timeout
+    @Value("${bulk.request-timeout-ms:1800000}")
+    private long requestTimeoutMillis;
+
+    @PostMapping(value = "/admin/bulk/users",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> bulkCreateUsers(HttpServletRequest request) throws IOException {
+        bulkProvisioningService.checkAdminAccess();
+        return streamResults(openBody(request), bulkProvisioningService::importUsers);
+    }
+
+    @PostMapping(value = "/admin/bulk/wallets",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> bulkCreateWallets(HttpServletRequest request) throws IOException {
+        bulkProvisioningService.checkAdminAccess();
+        return streamResults(openBody(request), bulkProvisioningService::importWallets);
+    }
+
+    private BufferedReader openBody(HttpServletRequest request) throws IOException {
+        return new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    // Reads the body while importing, off the request thread, and writes one result per line,
+    // flushing after every chunk so clients see progress
+    private ResponseEntity<ResponseBodyEmitter> streamResults(
+            BufferedReader body, BiConsumer<Iterator<String>, Consumer<List<BulkRowResultDTO>>> importer) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(requestTimeoutMillis);
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        bulkProvisioningService.submitImport(() -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            try (body) {
+                importer.accept(body.lines().iterator(), results -> {
+                    try {
+                        StringBuilder chunk = new StringBuilder();
+                        for (BulkRowResultDTO result : results) {
+                            chunk.append(objectMapper.writeValueAsString(result)).append('\n');
+                        }
+                        emitter.send(chunk.toString(), MediaType.APPLICATION_NDJSON);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            } finally {
+                MDC.clear();
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(emitter);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.E_Wallet.Controllers;
+
+import com.example.E_Wallet.DTO.JobRunDTO;
+import com.example.E_Wallet.DTO.ReconciliationReportDTO;
+import com.example.E_Wallet.Security.SecurityUtil;
+import com.example.E_Wallet.Service.BalanceSnapshotService;
+import com.example.E_Wallet.Service.LedgerReconciliationService;
+import com.example.E_Wallet.Service.StandingOrderService;
+import com.example.E_Wallet.Service.TransactionArchiveService;
+import com.example.E_Wallet.Service.WalletAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+public class AdminJobController {
+
+    @Autowired
+    private SecurityUtil securityUtil;
+
+    @Autowired
+    private WalletAnalyticsService walletAnalyticsService;
+
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+
+    @Autowired
+    private LedgerReconciliationService ledgerReconciliationService;
+
+    @Autowired
+    private StandingOrderService standingOrderService;
+
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+
+    @PostMapping("/admin/jobs/analytics-rebuild")
+    public ResponseEntity<JobRunDTO> rebuildWalletAnalytics() {
+        securityUtil.requireAdmin();
+        JobRunDTO run = walletAnalyticsService.rebuildAll();
+        return ResponseEntity.ok(run);
+    }
+
+    @PostMapping("/admin/jobs/balance-snapshots")
+    public ResponseEntity<JobRunDTO> takeBalanceSnapshots(
+            @RequestParam(name = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        securityUtil.requireAdmin();
+        JobRunDTO run = balanceSnapshotService.takeSnapshots(date != null ? date : LocalDate.now().minusDays(1));
+        return ResponseEntity.ok(run);
+    }
+
+    @PostMapping("/admin/jobs/reconciliation")
+    public ResponseEntity<ReconciliationReportDTO> reconcileLedger() {
+        securityUtil.requireAdmin();
+        ReconciliationReportDTO report = ledgerReconciliationService.reconcile();
+        return ResponseEntity.ok(report);
+    }
+
+    @PostMapping("/admin/jobs/standing-orders")
+    public ResponseEntity<JobRunDTO> runStandingOrders() {
+        securityUtil.requireAdmin();
+        JobRunDTO run = standingOrderService.runNow();
+        return ResponseEntity.ok(run);
+    }
+
+    @PostMapping("/admin/jobs/transaction-archive")
+    public ResponseEntity<JobRunDTO> archiveTransactions() {
+        securityUtil.requireAdmin();
+        JobRunDTO run = transactionArchiveService.archiveOldTransactions();
+        return ResponseEntity.ok(run);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.E_Wallet.Controllers;
+
+import com.example.E_Wallet.DTO.DashboardDTO;
+import com.example.E_Wallet.Service.DashboardService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+@RestController
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // The ETag is a hash of the body, so an unchanged dashboard costs the queries but not the transfer
+    @GetMapping("/dashboard")
+    public ResponseEntity<DashboardDTO> getDashboard(
+            @RequestParam(name = "recent", required = false) Integer recent,
+            WebRequest webRequest) throws JsonProcessingException {
+        DashboardDTO dashboard = dashboardService.getDashboard(recent);
+
+        String etag = "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(dashboard)) + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(dashboard);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.E_Wallet.Controllers;
+
+import com.example.E_Wallet.DTO.StandingOrderConfirmDTO;
+import com.example.E_Wallet.DTO.StandingOrderCreateDTO;
+import com.example.E_Wallet.DTO.StandingOrderDTO;
+import com.example.E_Wallet.Service.StandingOrderService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+public class StandingOrderController {
+
+    @Autowired
+    private StandingOrderService standingOrderService;
+
+    @GetMapping("/standing-orders")
+    public ResponseEntity<List<StandingOrderDTO>> getStandingOrders() {
+        List<StandingOrderDTO> orders = standingOrderService.getStandingOrders();
+        return ResponseEntity.ok(orders);
+    }
+
+    @PostMapping("/standing-orders")
+    public ResponseEntity<Map<String, Object>> createStandingOrder(
+            @Valid @RequestBody StandingOrderCreateDTO standingOrderCreateDTO) {
+        UUID orderId = standingOrderService.createStandingOrder(standingOrderCreateDTO);
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "OTP has been sent to your email. Please verify to activate the standing order.");
+        response.put("standingOrderId", orderId.toString());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @PostMapping("/standing-orders/{id}/confirm")
+    public ResponseEntity<Map<String, String>> confirmStandingOrder(
+            @PathVariable UUID id,
+            @Valid @RequestBody StandingOrderConfirmDTO confirmDTO) {
+        standingOrderService.confirmStandingOrder(id, confirmDTO.getOtp());
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Standing order activated");
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/standing-orders/{id}")
+    public ResponseEntity<Map<String, String>> cancelStandingOrder(@PathVariable UUID id) {
+        standingOrderService.cancelStandingOrder(id);
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Standing order cancelled");
+        return ResponseEntity.ok(response);
+    }
+}
@@ -4,7 +4,12 @@ import com.example.E_Wallet.DTO.MessageResponseDTO;
 import com.example.E_Wallet.DTO.OtpVerificationDTO;
 import com.example.E_Wallet.DTO.PaginatedResponse;
 import com.example.E_Wallet.DTO.TransactionDTO;
+import com.example.E_Wallet.Exceptions.ErrorCode;
+import com.example.E_Wallet.Exceptions.ValidationException;
+import com.example.E_Wallet.Security.SecurityUtil;
 import com.example.E_Wallet.Service.OtpService;
+import com.example.E_Wallet.Service.StepUpPolicy;
+import com.example.E_Wallet.Service.TransactionEventBus;
 import com.example.E_Wallet.Service.TransactionService;
 import com.example.E_Wallet.Service.WalletService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,15 +17,18 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import jakarta.validation.Valid;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 public class TransactionController {
@@ -34,6 +42,15 @@ public class TransactionController {
     @Autowired
     private WalletService walletService;
 
+    @Autowired
+    private StepUpPolicy stepUpPolicy;
+
+    @Autowired
+    private SecurityUtil securityUtil;
+
+    @Autowired
+    private TransactionEventBus transactionEventBus;
+
     // Default pagination values
     private static final int DEFAULT_PAGE = 0;  // First page (0-indexed)
     private static final int DEFAULT_SIZE = 20; // 20 items per page
@@ -114,6 +131,16 @@ public class TransactionController {
         }
     }
 
+    // Pushes status changes for the current user's wallets instead of polling GET /transactions
+    @GetMapping(path = "/transactions/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTransactionUpdates() {
+        UUID userId = securityUtil.getCurrentUserId();
+        if (userId == null) {
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
+        }
+        return transactionEventBus.subscribe(userId);
+    }
+
     @PostMapping("/transactions/verify-otp")
     public ResponseEntity<Map<String, String>> verifyOtp(@Valid @RequestBody OtpVerificationDTO otpVerificationDTO) {
         try {
@@ -128,11 +155,17 @@ public class TransactionController {
                 Map<String, String> response = new HashMap<>();
                 response.put("message", "OTP verified successfully. Transaction completed.");
                 response.put("status", "success");
+
+                // Lets small follow-up payments skip the OTP for a few minutes
+                String stepUpToken = stepUpPolicy.issueToken(securityUtil.getCurrentUserId());
+                if (stepUpToken != null) {
+                    response.put("stepUpToken", stepUpToken);
+                }
                 return ResponseEntity.ok(response);
             }
-        } catch (com.example.E_Wallet.Exceptions.ValidationException e) {
+        } catch (ValidationException e) {
             Map<String, String> response = new HashMap<>();
-            if (e.getMessage().contains("Transaction has failed")) {
+            if (e.getErrorCode() == ErrorCode.OTP_ATTEMPTS_EXCEEDED) {
                 response.put("message", e.getMessage());
                 response.put("status", "failed");
                 return ResponseEntity.badRequest().body(response);
@@ -1,6 +1,7 @@
 package com.example.E_Wallet.Controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -8,9 +9,12 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import com.example.E_Wallet.Service.BalanceSnapshotService;
+import com.example.E_Wallet.Service.WalletAnalyticsService;
 import com.example.E_Wallet.Service.WalletService;
 import com.example.E_Wallet.DTO.WalletDTO;
 import com.example.E_Wallet.DTO.WalletCreateDTO;
@@ -18,7 +22,12 @@ import com.example.E_Wallet.DTO.WalletUpdateDTO;
 import com.example.E_Wallet.DTO.CreditRequestDTO;
 import com.example.E_Wallet.DTO.WithdrawalRequestDTO;
 import com.example.E_Wallet.DTO.TransferRequestDTO;
+import com.example.E_Wallet.DTO.TransactionInitiationDTO;
+import com.example.E_Wallet.DTO.WalletAnalyticsDTO;
+import com.example.E_Wallet.DTO.WalletBalanceAtDTO;
 import jakarta.validation.Valid;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +39,12 @@ public class WalletController {
     @Autowired
     private WalletService walletService;
 
+    @Autowired
+    private WalletAnalyticsService walletAnalyticsService;
+
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+
     @GetMapping("/wallets")
     public ResponseEntity<List<WalletDTO>> getWallets() {
         List<WalletDTO> wallets = walletService.getWallets();
@@ -42,6 +57,23 @@ public class WalletController {
         return ResponseEntity.ok(walletDTO);
     }
 
+    @GetMapping("/wallets/{id}/analytics")
+    public ResponseEntity<WalletAnalyticsDTO> getWalletAnalytics(
+            @PathVariable UUID id,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        WalletAnalyticsDTO analytics = walletAnalyticsService.getWalletAnalytics(id, from, to);
+        return ResponseEntity.ok(analytics);
+    }
+
+    @GetMapping("/wallets/{id}/balance")
+    public ResponseEntity<WalletBalanceAtDTO> getWalletBalanceAt(
+            @PathVariable UUID id,
+            @RequestParam(name = "at", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        WalletBalanceAtDTO balance = balanceSnapshotService.getBalanceAt(id, at);
+        return ResponseEntity.ok(balance);
+    }
+
     @PostMapping("/wallets")
     public ResponseEntity<Map<String, String>> createWallet(@Valid @RequestBody WalletCreateDTO walletCreateDTO) {
         walletService.createWallet(walletCreateDTO);
@@ -69,30 +101,38 @@ public class WalletController {
     }
 
     @PostMapping("/wallets/credit")
-    public ResponseEntity<Map<String, Object>> creditWallet(@Valid @RequestBody CreditRequestDTO creditRequestDTO) {
-        UUID transactionId = walletService.creditWallet(creditRequestDTO);
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "OTP has been sent to your email. Please verify to complete the transaction.");
-        response.put("transactionId", transactionId.toString());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<Map<String, Object>> creditWallet(
+            @Valid @RequestBody CreditRequestDTO creditRequestDTO,
+            @RequestHeader(name = "X-Step-Up-Token", required = false) String stepUpToken) {
+        TransactionInitiationDTO initiation = walletService.creditWallet(creditRequestDTO, stepUpToken);
+        return ResponseEntity.ok(buildInitiationResponse(initiation));
     }
 
     @PostMapping("/wallets/withdraw")
     public ResponseEntity<Map<String, Object>> withdrawWallet(
-            @Valid @RequestBody WithdrawalRequestDTO withdrawalRequestDTO) {
-        UUID transactionId = walletService.withdrawWallet(withdrawalRequestDTO);
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "OTP has been sent to your email. Please verify to complete the transaction.");
-        response.put("transactionId", transactionId.toString());
-        return ResponseEntity.ok(response);
+            @Valid @RequestBody WithdrawalRequestDTO withdrawalRequestDTO,
+            @RequestHeader(name = "X-Step-Up-Token", required = false) String stepUpToken) {
+        TransactionInitiationDTO initiation = walletService.withdrawWallet(withdrawalRequestDTO, stepUpToken);
+        return ResponseEntity.ok(buildInitiationResponse(initiation));
     }
 
     @PostMapping("/wallets/transfer")
-    public ResponseEntity<Map<String, Object>> transferFunds(@Valid @RequestBody TransferRequestDTO transferRequestDTO) {
-        UUID transactionId = walletService.transferFunds(transferRequestDTO);
+    public ResponseEntity<Map<String, Object>> transferFunds(
+            @Valid @RequestBody TransferRequestDTO transferRequestDTO,
+            @RequestHeader(name = "X-Step-Up-Token", required = false) String stepUpToken) {
+        TransactionInitiationDTO initiation = walletService.transferFunds(transferRequestDTO, stepUpToken);
+        return ResponseEntity.ok(buildInitiationResponse(initiation));
+    }
+
+    private Map<String, Object> buildInitiationResponse(TransactionInitiationDTO initiation) {
         Map<String, Object> response = new HashMap<>();
-        response.put("message", "OTP has been sent to your email. Please verify to complete the transaction.");
-        response.put("transactionId", transactionId.toString());
-        return ResponseEntity.ok(response);
+        if (initiation.isOtpRequired()) {
+            response.put("message", "OTP has been sent to your email. Please verify to complete the transaction.");
+        } else {
+            response.put("message", "Transaction completed.");
+            response.put("status", "success");
+        }
+        response.put("transactionId", initiation.getTransactionId().toString());
+        return response;
     }
 }
@@ -0,0 +1,16 @@
+package com.example.E_Wallet.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DashboardDTO {
+    private List<DashboardWalletDTO> wallets;
+    private double totalBalance;
+    private List<TransactionDTO> recentTransactions;
+    private long pendingOtpCount;
+}
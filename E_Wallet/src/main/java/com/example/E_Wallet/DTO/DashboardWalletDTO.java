@@ -0,0 +1,16 @@
+package com.example.E_Wallet.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DashboardWalletDTO {
+    private UUID id;
+    private String walletName;
+    private String accountNumber;
+    private double balance;
+}
@@ -0,0 +1,16 @@
+package com.example.E_Wallet.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class JobRunDTO {
+    private String job;
+    private long itemsProcessed; // wallets, transactions, ... depending on the job
+    private long rowsWritten;
+    private long durationMs;
+    private double itemsPerSecond;
+}
@@ -0,0 +1,16 @@
+package com.example.E_Wallet.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LedgerDiscrepancyDTO {
+    private UUID walletId;
+    private double recordedBalance;
+    private double expectedBalance; // opening balance + net successful flows
+    private double difference;
+}
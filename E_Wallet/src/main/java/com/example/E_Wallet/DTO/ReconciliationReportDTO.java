@@ -0,0 +1,19 @@
+package com.example.E_Wallet.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReconciliationReportDTO {
+    private JobRunDTO run;
+    private long walletsChecked;
+    private long walletsWithoutBaseline;
+    private long discrepancyCount;
+    private List<LedgerDiscrepancyDTO> discrepancies; // capped, largest differences first
+    private List<UUID> walletsWithoutBaselineIds; // capped; these wallets were skipped, not checked
+}
@@ -0,0 +1,41 @@
+package com.example.E_Wallet.DTO;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StandingOrderCreateDTO {
+
+    @NotNull(message = "Source wallet ID is required")
+    private UUID sourceWalletId;
+
+    @NotNull(message = "Destination wallet ID is required")
+    private UUID destinationWalletId;
+
+    @NotBlank(message = "Passcode is required")
+    @Pattern(regexp = "^\\d{4}$", message = "Passcode must be exactly 4 digits")
+    private String passcode;
+
+    @NotNull(message = "Amount is required")
+    @Positive(message = "Amount must be greater than 0")
+    private Double amount;
+
+    @NotBlank(message = "Frequency is required")
+    @Pattern(regexp = "^(?i)(DAILY|WEEKLY|MONTHLY)$", message = "Frequency must be DAILY, WEEKLY or MONTHLY")
+    private String frequency;
+
+    // First execution; defaults to now
+    private LocalDateTime startAt;
+
+    // Optional; no executions are scheduled after this
+    private LocalDateTime endAt;
+}
@@ -0,0 +1,26 @@
+package com.example.E_Wallet.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StandingOrderDTO {
+    private UUID id;
+    private UUID sourceWalletId;
+    private UUID destinationWalletId;
+    private double amount;
+    private String frequency;
+    private LocalDateTime startAt;
+    private LocalDateTime endAt;
+    private LocalDateTime nextRunAt;
+    private String status;
+    private LocalDateTime lastRunAt;
+    private String lastRunStatus;
+    private UUID lastTransactionId;
+    private int consecutiveFailures;
+}
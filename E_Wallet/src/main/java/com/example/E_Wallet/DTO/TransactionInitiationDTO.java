@@ -0,0 +1,15 @@
+package com.example.E_Wallet.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.UUID;
+
+// otpRequired is false when a step-up token let the transaction settle immediately
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionInitiationDTO {
+    private UUID transactionId;
+    private boolean otpRequired;
+}
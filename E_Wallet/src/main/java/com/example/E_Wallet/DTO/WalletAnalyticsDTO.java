@@ -0,0 +1,23 @@
+package com.example.E_Wallet.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WalletAnalyticsDTO {
+    private UUID walletId;
+    private LocalDate from;
+    private LocalDate to;
+    private double totalCredits;
+    private long creditCount;
+    private double totalDebits;
+    private long debitCount;
+    private double netFlow;
+    private List<WalletDailyStatDTO> days;
+}
@@ -0,0 +1,18 @@
+package com.example.E_Wallet.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WalletBalanceAtDTO {
+    private UUID walletId;
+    private LocalDateTime at;
+    private double balance;
+    private LocalDate snapshotDate; // null when replayed back from the current balance
+}
@@ -0,0 +1,17 @@
+package com.example.E_Wallet.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WalletDailyStatDTO {
+    private LocalDate date;
+    private double creditTotal;
+    private long creditCount;
+    private double debitTotal;
+    private long debitCount;
+}
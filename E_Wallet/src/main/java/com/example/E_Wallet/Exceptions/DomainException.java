@@ -0,0 +1,22 @@
+package com.example.E_Wallet.Exceptions;
+
+/**
+ * Base class for expected business rejections (bad passcode, wrong OTP, ...).
+ *
+ * These are thrown on ordinary request paths, so they skip stack trace
+ * capture and suppression: the error code and message are all a caller or
+ * the exception handler needs.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    private final ErrorCode errorCode;
+
+    protected DomainException(ErrorCode errorCode, String message) {
+        super(message, null, false, false);
+        this.errorCode = errorCode;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.E_Wallet.Exceptions;
 
-public class ResourceNotFoundException extends RuntimeException {
+public class ResourceNotFoundException extends DomainException {
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(ErrorCode.RESOURCE_NOT_FOUND, message);
     }
-}
 
+    public ResourceNotFoundException(ErrorCode errorCode, String message) {
+        super(errorCode, message);
+    }
+}
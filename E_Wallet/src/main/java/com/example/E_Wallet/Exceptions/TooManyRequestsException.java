@@ -0,0 +1,7 @@
+package com.example.E_Wallet.Exceptions;
+
+public class TooManyRequestsException extends DomainException {
+    public TooManyRequestsException(String message) {
+        super(ErrorCode.RATE_LIMITED, message);
+    }
+}
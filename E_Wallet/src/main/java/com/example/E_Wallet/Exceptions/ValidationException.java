@@ -1,8 +1,11 @@
 package com.example.E_Wallet.Exceptions;
 
-public class ValidationException extends RuntimeException {
+public class ValidationException extends DomainException {
     public ValidationException(String message) {
-        super(message);
+        super(ErrorCode.VALIDATION_FAILED, message);
     }
-}
 
+    public ValidationException(ErrorCode errorCode, String message) {
+        super(errorCode, message);
+    }
+}
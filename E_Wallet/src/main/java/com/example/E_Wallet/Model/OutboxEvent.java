@@ -0,0 +1,39 @@
+package com.example.E_Wallet.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Wallet domain event written in the same transaction as the balance change; removed once relayed
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "wallet_outbox_events")
+public class OutboxEvent {
+
+    // Sequential, so the relay can publish in insert order
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType; // "WalletCredited", "WalletDebited", "TransferCompleted"
+
+    @Column(name = "transaction_id", nullable = false)
+    private UUID transactionId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,78 @@
+package com.example.E_Wallet.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Recurring transfer consented to once with an OTP and executed by StandingOrderService
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "standing_orders", indexes = {
+        @Index(name = "idx_standing_orders_due", columnList = "status, next_run_at"),
+        @Index(name = "idx_standing_orders_source_wallet", columnList = "source_wallet_id")
+})
+public class StandingOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "source_wallet_id", nullable = false)
+    private Wallet sourceWallet;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "destination_wallet_id", nullable = false)
+    private Wallet destinationWallet;
+
+    private double amount;
+
+    private String frequency; // "DAILY", "WEEKLY", "MONTHLY"
+
+    @Column(name = "start_at", nullable = false)
+    private LocalDateTime startAt;
+
+    @Column(name = "end_at")
+    private LocalDateTime endAt;
+
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt;
+
+    // Occurrences consumed so far; the next one is startAt plus runCount periods
+    @Column(name = "run_count", nullable = false)
+    private int runCount;
+
+    private String status; // "pending_consent", "active", "suspended", "completed", "cancelled"
+
+    @Column(name = "consecutive_failures", nullable = false)
+    private int consecutiveFailures;
+
+    @Column(name = "last_run_at")
+    private LocalDateTime lastRunAt;
+
+    @Column(name = "last_run_status")
+    private String lastRunStatus;
+
+    @Column(name = "last_transaction_id")
+    private UUID lastTransactionId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -6,6 +6,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -19,7 +20,12 @@ import java.util.UUID;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "transactions")
+// Leads with the date so the statement delta (transactions after a user's high-water mark) is a
+// short range scan; the wallet columns let its user filter be checked without reading the rows
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_date_wallets",
+                columnList = "transaction_date, sender_wallet_id, receiver_wallet_id")
+})
 public class Transaction {
 
     @Id
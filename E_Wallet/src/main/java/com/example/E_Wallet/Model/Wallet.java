@@ -38,9 +38,18 @@ public class Wallet {
 
     private double balance;
 
+    // Balance at creation plus manual adjustments and archived flows; the baseline for ledger reconciliation
+    @Column(name = "opening_balance")
+    private Double openingBalance;
+
     @Column(name = "passcode", length = 255)
     private String passcode; 
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
+
+    // Last outbox sequence number issued for this wallet; only WalletRepo.advanceEventSequence writes it
+    @Column(name = "event_sequence", insertable = false, updatable = false,
+            columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private long eventSequence;
 }
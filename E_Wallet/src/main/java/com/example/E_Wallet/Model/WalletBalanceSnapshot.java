@@ -0,0 +1,41 @@
+package com.example.E_Wallet.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Wallet balance at the end of snapshotDate
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "wallet_balance_snapshots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_wallet_balance_snapshots_wallet_date",
+                columnNames = {"wallet_id", "snapshot_date"}))
+public class WalletBalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private UUID walletId;
+
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate;
+
+    private double balance;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,47 @@
+package com.example.E_Wallet.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// One row per wallet per day, maintained as transactions succeed
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "wallet_daily_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_wallet_daily_stats_wallet_date",
+                columnNames = {"wallet_id", "stat_date"}))
+public class WalletDailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private UUID walletId;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "credit_total", nullable = false)
+    private double creditTotal;
+
+    @Column(name = "credit_count", nullable = false)
+    private long creditCount;
+
+    @Column(name = "debit_total", nullable = false)
+    private double debitTotal;
+
+    @Column(name = "debit_count", nullable = false)
+    private long debitCount;
+}
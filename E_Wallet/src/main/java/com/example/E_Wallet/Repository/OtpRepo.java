@@ -1,7 +1,10 @@
 package com.example.E_Wallet.Repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.example.E_Wallet.Model.Otp;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -10,6 +13,10 @@ public interface OtpRepo extends JpaRepository<Otp, UUID> {
     Optional<Otp> findByTransactionId(UUID transactionId);
     
     Optional<Otp> findByTransactionIdAndIsVerifiedFalse(UUID transactionId);
+
+    @Query("SELECT COUNT(o) FROM Otp o WHERE o.userId = :userId " +
+           "AND o.isVerified = false AND o.isExpired = false AND o.expiresAt > :now")
+    long countPendingByUserId(@Param("userId") UUID userId, @Param("now") LocalDateTime now);
 }
 
 
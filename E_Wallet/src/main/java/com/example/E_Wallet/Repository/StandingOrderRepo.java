@@ -0,0 +1,34 @@
+package com.example.E_Wallet.Repository;
+
+import com.example.E_Wallet.Model.StandingOrder;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface StandingOrderRepo extends JpaRepository<StandingOrder, UUID> {
+
+    List<StandingOrder> findByUserIdOrderByCreatedAtDesc(UUID userId);
+
+    @Query("SELECT DISTINCT o.sourceWallet.id FROM StandingOrder o " +
+           "WHERE o.status = 'active' AND o.nextRunAt <= :now ORDER BY o.sourceWallet.id")
+    List<UUID> findSourceWalletIdsWithDueOrders(@Param("now") LocalDateTime now);
+
+    @Query("SELECT o.id FROM StandingOrder o " +
+           "WHERE o.sourceWallet.id IN :walletIds AND o.status = 'active' AND o.nextRunAt <= :now " +
+           "ORDER BY o.sourceWallet.id, o.nextRunAt, o.createdAt")
+    List<UUID> findDueIdsBySourceWallets(@Param("walletIds") Collection<UUID> walletIds,
+                                         @Param("now") LocalDateTime now);
+
+    // Locking read, so an order already advanced by a concurrent run is no longer due
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM StandingOrder o WHERE o.id = :id AND o.status = 'active' AND o.nextRunAt <= :now")
+    Optional<StandingOrder> lockIfDue(@Param("id") UUID id, @Param("now") LocalDateTime now);
+}
@@ -3,9 +3,12 @@ package com.example.E_Wallet.Repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import com.example.E_Wallet.Model.Transaction;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -25,6 +28,13 @@ public interface TransactionRepo extends JpaRepository<Transaction, UUID> {
            "LEFT JOIN FETCH t.receiverWallet rw " +
            "LEFT JOIN FETCH rw.user ru")
     Page<Transaction> findAllWithDetails(Pageable pageable);
+
+    // Columns only, newest first: id, sender wallet, receiver wallet, amount, date, status, remarks
+    @Query("SELECT t.id, sw.id, rw.id, t.amount, t.transactionDate, t.status, t.remarks " +
+           "FROM Transaction t JOIN t.senderWallet sw JOIN t.receiverWallet rw " +
+           "WHERE sw.user.id = :userId OR rw.user.id = :userId " +
+           "ORDER BY t.transactionDate DESC")
+    List<Object[]> findRecentRowsByUserId(@Param("userId") UUID userId, Pageable pageable);
    
     @Query("SELECT DISTINCT t FROM Transaction t " +
            "LEFT JOIN FETCH t.senderWallet sw " +
@@ -74,5 +84,84 @@ public interface TransactionRepo extends JpaRepository<Transaction, UUID> {
            "WHERE su.id = :userId OR ru.id = :userId " +
            "ORDER BY t.transactionDate DESC")
     List<Transaction> findAllByUserId(@Param("userId") UUID userId);
-}
 
+    // Statement delta: the user's transactions newer than the cached high-water mark
+    @Query("SELECT DISTINCT t FROM Transaction t " +
+           "LEFT JOIN FETCH t.senderWallet sw " +
+           "LEFT JOIN FETCH sw.user su " +
+           "LEFT JOIN FETCH t.receiverWallet rw " +
+           "LEFT JOIN FETCH rw.user ru " +
+           "WHERE (su.id = :userId OR ru.id = :userId) AND t.transactionDate > :after " +
+           "ORDER BY t.transactionDate DESC")
+    List<Transaction> findAllByUserIdAfter(@Param("userId") UUID userId, @Param("after") LocalDateTime after);
+
+    // Daily sums of successful transactions per sending wallet, used to rebuild wallet_daily_stats
+    @Query("SELECT t.senderWallet.id, extract(date from t.transactionDate), t.remarks, SUM(t.amount), COUNT(t) " +
+           "FROM Transaction t " +
+           "WHERE LOWER(t.status) = 'success' AND t.senderWallet.id IN :walletIds " +
+           "GROUP BY t.senderWallet.id, extract(date from t.transactionDate), t.remarks")
+    List<Object[]> sumSuccessfulBySenderAndDay(@Param("walletIds") Collection<UUID> walletIds);
+
+    // Incoming side of transfers (credits and withdrawals have sender == receiver)
+    @Query("SELECT t.receiverWallet.id, extract(date from t.transactionDate), SUM(t.amount), COUNT(t) " +
+           "FROM Transaction t " +
+           "WHERE LOWER(t.status) = 'success' AND t.receiverWallet.id IN :walletIds " +
+           "AND t.senderWallet.id <> t.receiverWallet.id " +
+           "GROUP BY t.receiverWallet.id, extract(date from t.transactionDate)")
+    List<Object[]> sumSuccessfulTransfersByReceiverAndDay(@Param("walletIds") Collection<UUID> walletIds);
+
+    // Net flow inputs for a time window: [from, to)
+    @Query("SELECT t.senderWallet.id, t.remarks, SUM(t.amount) " +
+           "FROM Transaction t " +
+           "WHERE LOWER(t.status) = 'success' AND t.senderWallet.id IN :walletIds " +
+           "AND t.transactionDate >= :from AND t.transactionDate < :to " +
+           "GROUP BY t.senderWallet.id, t.remarks")
+    List<Object[]> sumSuccessfulBySenderBetween(@Param("walletIds") Collection<UUID> walletIds,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
+
+    @Query("SELECT t.receiverWallet.id, SUM(t.amount) " +
+           "FROM Transaction t " +
+           "WHERE LOWER(t.status) = 'success' AND t.receiverWallet.id IN :walletIds " +
+           "AND t.senderWallet.id <> t.receiverWallet.id " +
+           "AND t.transactionDate >= :from AND t.transactionDate < :to " +
+           "GROUP BY t.receiverWallet.id")
+    List<Object[]> sumSuccessfulTransfersByReceiverBetween(@Param("walletIds") Collection<UUID> walletIds,
+                                                           @Param("from") LocalDateTime from,
+                                                           @Param("to") LocalDateTime to);
+
+    // All-time flows with row counts, used by ledger reconciliation
+    @Query("SELECT t.senderWallet.id, t.remarks, SUM(t.amount), COUNT(t) " +
+           "FROM Transaction t " +
+           "WHERE LOWER(t.status) = 'success' AND t.senderWallet.id IN :walletIds " +
+           "GROUP BY t.senderWallet.id, t.remarks")
+    List<Object[]> sumSuccessfulBySender(@Param("walletIds") Collection<UUID> walletIds);
+
+    @Query("SELECT t.receiverWallet.id, SUM(t.amount), COUNT(t) " +
+           "FROM Transaction t " +
+           "WHERE LOWER(t.status) = 'success' AND t.receiverWallet.id IN :walletIds " +
+           "AND t.senderWallet.id <> t.receiverWallet.id " +
+           "GROUP BY t.receiverWallet.id")
+    List<Object[]> sumSuccessfulTransfersByReceiver(@Param("walletIds") Collection<UUID> walletIds);
+
+    // Cold archive (TransactionArchiveService): plain columns, no joins
+    @Query("SELECT MIN(t.transactionDate) FROM Transaction t")
+    LocalDateTime findOldestTransactionDate();
+
+    @Query("SELECT t.id, t.senderWallet.id, t.receiverWallet.id, t.amount, t.transactionDate, t.status, t.remarks " +
+           "FROM Transaction t " +
+           "WHERE t.transactionDate >= :from AND t.transactionDate < :to")
+    List<Object[]> findArchiveRowsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT t.id, t.senderWallet.id, t.receiverWallet.id, t.amount, t.transactionDate, t.status, t.remarks " +
+           "FROM Transaction t WHERE t.id IN :ids")
+    List<Object[]> findArchiveRowsByIds(@Param("ids") Collection<UUID> ids);
+
+    // Which of these archived ids have not been deleted from the table yet
+    @Query("SELECT t.id FROM Transaction t WHERE t.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query("DELETE FROM Transaction t WHERE t.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<UUID> ids);
+}
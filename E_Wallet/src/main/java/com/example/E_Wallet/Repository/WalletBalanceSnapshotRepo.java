@@ -0,0 +1,21 @@
+package com.example.E_Wallet.Repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.example.E_Wallet.Model.WalletBalanceSnapshot;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface WalletBalanceSnapshotRepo extends JpaRepository<WalletBalanceSnapshot, UUID> {
+
+    Optional<WalletBalanceSnapshot> findFirstByWalletIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(
+            UUID walletId, LocalDate snapshotDate);
+
+    @Modifying
+    @Query("DELETE FROM WalletBalanceSnapshot s WHERE s.snapshotDate = :snapshotDate AND s.walletId IN :walletIds")
+    int deleteForDate(@Param("snapshotDate") LocalDate snapshotDate, @Param("walletIds") Collection<UUID> walletIds);
+}
@@ -0,0 +1,45 @@
+package com.example.E_Wallet.Repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.example.E_Wallet.Model.WalletDailyStats;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface WalletDailyStatsRepo extends JpaRepository<WalletDailyStats, UUID> {
+
+    List<WalletDailyStats> findByWalletIdAndStatDateBetweenOrderByStatDateAsc(UUID walletId, LocalDate from, LocalDate to);
+
+    // Atomic increment; inserts the day's row on first use. Uses the row alias
+    // (MySQL 8.0.19+) because VALUES() in ON DUPLICATE KEY UPDATE is deprecated.
+    @Modifying
+    @Query(value = "INSERT INTO wallet_daily_stats " +
+           "(id, wallet_id, stat_date, credit_total, credit_count, debit_total, debit_count) " +
+           "VALUES (:id, :walletId, :statDate, :creditTotal, :creditCount, :debitTotal, :debitCount) AS new " +
+           "ON DUPLICATE KEY UPDATE " +
+           "credit_total = credit_total + new.credit_total, " +
+           "credit_count = credit_count + new.credit_count, " +
+           "debit_total = debit_total + new.debit_total, " +
+           "debit_count = debit_count + new.debit_count",
+           nativeQuery = true)
+    int upsertDay(@Param("id") UUID id,
+                  @Param("walletId") UUID walletId,
+                  @Param("statDate") LocalDate statDate,
+                  @Param("creditTotal") double creditTotal,
+                  @Param("creditCount") long creditCount,
+                  @Param("debitTotal") double debitTotal,
+                  @Param("debitCount") long debitCount);
+
+    @Modifying
+    @Query("DELETE FROM WalletDailyStats s WHERE s.walletId IN :walletIds")
+    int deleteByWalletIds(@Param("walletIds") Collection<UUID> walletIds);
+
+    // Rebuilds keep the days whose transactions have been archived
+    @Modifying
+    @Query("DELETE FROM WalletDailyStats s WHERE s.walletId IN :walletIds AND s.statDate >= :fromDate")
+    int deleteByWalletIdsFrom(@Param("walletIds") Collection<UUID> walletIds, @Param("fromDate") LocalDate fromDate);
+}
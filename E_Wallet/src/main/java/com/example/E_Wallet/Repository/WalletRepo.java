@@ -1,7 +1,13 @@
 package com.example.E_Wallet.Repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.example.E_Wallet.Model.Wallet;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -11,5 +17,48 @@ public interface WalletRepo extends JpaRepository<Wallet, UUID> {
     List<Wallet> findByUserId(UUID userId);
     Optional<Wallet> findByWalletNameAndUserEmail(String walletName, String userEmail);
     Optional<Wallet> findByWalletNameAndUserName(String walletName, String userName);
-}
 
+    @Query("SELECT w.id, w.user.id FROM Wallet w")
+    List<Object[]> findAllOwners();
+
+    @Query("SELECT w.user.id FROM Wallet w WHERE w.id = :walletId")
+    Optional<UUID> findOwnerId(@Param("walletId") UUID walletId);
+
+    @Query("SELECT w.id, w.walletName, w.accountNumber, w.balance FROM Wallet w " +
+           "WHERE w.user.id = :userId ORDER BY w.createdAt")
+    List<Object[]> findDashboardRows(@Param("userId") UUID userId);
+
+    @Query("SELECT COALESCE(SUM(w.balance), 0) FROM Wallet w WHERE w.user.id = :userId")
+    double sumBalanceByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT w.id FROM Wallet w ORDER BY w.id")
+    List<UUID> findAllIds();
+
+    @Query("SELECT w.id, w.balance, w.createdAt FROM Wallet w WHERE w.id IN :walletIds")
+    List<Object[]> findBalances(@Param("walletIds") Collection<UUID> walletIds);
+
+    @Query("SELECT w.id, w.balance, w.openingBalance FROM Wallet w WHERE w.id IN :walletIds")
+    List<Object[]> findLedgerBaselines(@Param("walletIds") Collection<UUID> walletIds);
+
+    @Query("SELECT w.accountNumber FROM Wallet w WHERE w.accountNumber IN :accountNumbers")
+    List<String> findExistingAccountNumbers(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    // Locks in id order so concurrent batches cannot deadlock on each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id IN :walletIds ORDER BY w.id")
+    List<Wallet> lockAllByIdIn(@Param("walletIds") Collection<UUID> walletIds);
+
+    // Folds archived flows into the reconciliation baseline; wallets without a baseline stay without one
+    @Modifying
+    @Query("UPDATE Wallet w SET w.openingBalance = w.openingBalance + :delta " +
+           "WHERE w.id = :walletId AND w.openingBalance IS NOT NULL")
+    int addToOpeningBalance(@Param("walletId") UUID walletId, @Param("delta") double delta);
+
+    // A single UPDATE keeps the row locked until commit, so each wallet's numbers follow commit order
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Wallet w SET w.eventSequence = w.eventSequence + 1 WHERE w.id IN :walletIds")
+    int advanceEventSequence(@Param("walletIds") Collection<UUID> walletIds);
+
+    @Query("SELECT w.id, w.eventSequence FROM Wallet w WHERE w.id IN :walletIds")
+    List<Object[]> findEventSequences(@Param("walletIds") Collection<UUID> walletIds);
+}
@@ -3,10 +3,14 @@ package com.example.E_Wallet.Security;
 import com.example.E_Wallet.Repository.UserRepo;
 import com.example.E_Wallet.Model.User;
 import com.example.E_Wallet.Util.JwtUtil;
+import com.example.E_Wallet.Util.LogSampler;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -26,9 +30,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     @Autowired
     private UserRepo userRepo;
 
+    @Autowired
+    private LogSampler logSampler;
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
@@ -46,13 +55,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             try {
 
                 email = jwtUtil.getEmailFromToken(token);
-                logger.debug("Extracted email from token: " + email);
             } catch (Exception e) {
-                logger.warn("Could not extract email from token: " + e.getMessage());
-
+                logRejected("unparseable_token", request);
             }
         } else if (authHeader != null) {
-            logger.warn("Authorization header present but doesn't start with 'Bearer ': " + authHeader);
+            // The header value itself is a credential and is never logged
+            logRejected("non_bearer_header", request);
         }
 
         if (token != null && email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
@@ -83,20 +91,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                     SecurityContextHolder.getContext().setAuthentication(authenticationToken);
 
-                    logger.info("User authenticated successfully: " + email + " with role: " + user.getRole());
+                    MDC.put("userId", String.valueOf(user.getId()));
+                    log.debug("event=authenticated role={}", user.getRole());
                 } else {
-                    logger.warn("User not found in database for email: " + email);
+                    logRejected("unknown_user", request);
                 }
             } else {
-                logger.warn("JWT token validation failed for email: " + email);
-            }
-        } else {
-            if (token == null) {
-                logger.debug("No JWT token found in request to: " + request.getRequestURI());
-            } else if (email == null) {
-                logger.warn("Could not extract email from token for request: " + request.getRequestURI());
+                logRejected("invalid_token", request);
             }
+        } else if (token == null) {
+            log.debug("event=anonymous uri={}", request.getRequestURI());
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove("userId");
+        }
+    }
+
+    private void logRejected(String reason, HttpServletRequest request) {
+        long suppressed = logSampler.sample("auth.rejected");
+        if (suppressed >= 0) {
+            log.warn("event=auth_rejected reason={} uri={} suppressed={}", reason, request.getRequestURI(), suppressed);
         }
-        filterChain.doFilter(request, response);
     }
 }
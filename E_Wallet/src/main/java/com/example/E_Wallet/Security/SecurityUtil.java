@@ -1,5 +1,7 @@
 package com.example.E_Wallet.Security;
 
+import com.example.E_Wallet.Exceptions.ValidationException;
+import com.example.E_Wallet.Exceptions.ErrorCode;
 import com.example.E_Wallet.Model.User;
 import com.example.E_Wallet.Repository.UserRepo;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,6 +51,17 @@ public class SecurityUtil {
         return user != null && "ADMIN".equalsIgnoreCase(user.getRole());
     }
 
+    public User requireAdmin() {
+        User user = getCurrentUser();
+        if (user == null) {
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
+        }
+        if (!"ADMIN".equalsIgnoreCase(user.getRole())) {
+            throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: Admin role required");
+        }
+        return user;
+    }
+
     public boolean hasRole(String role) {
         User user = getCurrentUser();
         return user != null && role != null && role.equalsIgnoreCase(user.getRole());
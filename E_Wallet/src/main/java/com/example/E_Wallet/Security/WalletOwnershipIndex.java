@@ -0,0 +1,86 @@
+package com.example.E_Wallet.Security;
+
+import com.example.E_Wallet.Exceptions.ResourceNotFoundException;
+import com.example.E_Wallet.Repository.WalletRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory walletId -> owner userId map, so ownership checks run before any
+ * wallet is loaded and requests for someone else's wallet are rejected without
+ * a query.
+ *
+ * Warmed from a two-column projection at startup. Writes that change ownership
+ * (create, owner change, delete, user delete) update the map after their
+ * transaction commits, so a rollback never leaves a wrong entry behind. A
+ * wallet missing from the map, e.g. one created by another instance, is looked
+ * up once by id and then cached.
+ */
+@Component
+public class WalletOwnershipIndex {
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    private final Map<UUID, UUID> ownerByWallet = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        List<Object[]> rows = walletRepo.findAllOwners();
+        for (Object[] row : rows) {
+            ownerByWallet.put((UUID) row[0], (UUID) row[1]);
+        }
+    }
+
+    /**
+     * True if userId owns walletId. Throws ResourceNotFoundException if the
+     * wallet does not exist.
+     */
+    public boolean authorize(UUID walletId, UUID userId) {
+        if (walletId == null || userId == null) {
+            return false;
+        }
+        UUID ownerId = ownerByWallet.get(walletId);
+        if (ownerId == null) {
+            ownerId = walletRepo.findOwnerId(walletId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Wallet not found with id: " + walletId));
+            ownerByWallet.putIfAbsent(walletId, ownerId);
+        }
+        return ownerId.equals(userId);
+    }
+
+    public void walletSaved(UUID walletId, UUID ownerId) {
+        afterCommit(() -> ownerByWallet.put(walletId, ownerId));
+    }
+
+    public void walletDeleted(UUID walletId) {
+        afterCommit(() -> ownerByWallet.remove(walletId));
+    }
+
+    // Wallets are removed with their user by cascade
+    public void userDeleted(UUID userId) {
+        afterCommit(() -> ownerByWallet.values().removeIf(userId::equals));
+    }
+
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
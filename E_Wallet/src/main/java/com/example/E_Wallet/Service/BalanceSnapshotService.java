@@ -0,0 +1,178 @@
+package com.example.E_Wallet.Service;
+
+import com.example.E_Wallet.DTO.JobRunDTO;
+import com.example.E_Wallet.DTO.WalletBalanceAtDTO;
+import com.example.E_Wallet.Exceptions.ResourceNotFoundException;
+import com.example.E_Wallet.Exceptions.ValidationException;
+import com.example.E_Wallet.Exceptions.ErrorCode;
+import com.example.E_Wallet.Model.User;
+import com.example.E_Wallet.Model.Wallet;
+import com.example.E_Wallet.Model.WalletBalanceSnapshot;
+import com.example.E_Wallet.Repository.WalletBalanceSnapshotRepo;
+import com.example.E_Wallet.Repository.WalletRepo;
+import com.example.E_Wallet.Security.SecurityUtil;
+import com.example.E_Wallet.Security.WalletOwnershipIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * End-of-day balance snapshots and point-in-time balance lookups.
+ *
+ * A balance at any instant is the nearest earlier snapshot plus the net flow
+ * of successful transactions since then. Without an earlier snapshot the
+ * current balance is replayed backwards instead. Manual balance edits through
+ * PUT /wallets are not transactions, so snapshots taken before such an edit
+ * do not reflect it.
+ */
+@Service
+public class BalanceSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceSnapshotService.class);
+
+    private static final int PARTITION_SIZE = 500;
+
+    @Autowired
+    private WalletBalanceSnapshotRepo walletBalanceSnapshotRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private WalletFlowCalculator walletFlowCalculator;
+
+    @Autowired
+    private TransactionArchiveStore transactionArchiveStore;
+
+    @Autowired
+    private SecurityUtil securityUtil;
+
+    @Autowired
+    private WalletOwnershipIndex walletOwnershipIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PartitionedJobRunner partitionedJobRunner;
+
+    @Value("${snapshots.parallelism:4}")
+    private int snapshotParallelism;
+
+    @Scheduled(cron = "${snapshots.cron:0 5 0 * * *}")
+    public void snapshotPreviousDay() {
+        try {
+            takeSnapshots(LocalDate.now().minusDays(1));
+        } catch (Exception e) {
+            log.error("event=balance_snapshot_job_failed error={}", e.getMessage(), e);
+        }
+    }
+
+    // Re-running for the same day replaces that day's snapshots
+    public JobRunDTO takeSnapshots(LocalDate day) {
+        if (day == null || !day.isBefore(LocalDate.now())) {
+            throw new ValidationException("Snapshots can only be taken for past days");
+        }
+
+        long startNanos = System.nanoTime();
+        List<UUID> walletIds = walletRepo.findAllIds();
+
+        long rowsWritten = partitionedJobRunner.run("Balance snapshot", walletIds,
+                PARTITION_SIZE, snapshotParallelism, partition -> snapshotPartition(partition, day));
+
+        return partitionedJobRunner.summarize("balance-snapshots", walletIds.size(), rowsWritten, startNanos);
+    }
+
+    private long snapshotPartition(List<UUID> walletIds, LocalDate day) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> {
+            Set<YearMonth> settledMonths = transactionArchiveStore.settledMonths();
+            LocalDateTime endOfDay = day.plusDays(1).atStartOfDay();
+            LocalDateTime now = LocalDateTime.now();
+
+            // Balances and later flows are read in one transaction so they agree
+            List<Object[]> balances = walletRepo.findBalances(walletIds);
+            Map<UUID, Double> flowsSince = walletFlowCalculator.netFlows(walletIds, endOfDay, now, settledMonths);
+
+            List<WalletBalanceSnapshot> snapshots = new ArrayList<>();
+            for (Object[] row : balances) {
+                UUID walletId = (UUID) row[0];
+                LocalDateTime createdAt = (LocalDateTime) row[2];
+                if (createdAt != null && !createdAt.isBefore(endOfDay)) {
+                    continue; // wallet did not exist yet
+                }
+
+                WalletBalanceSnapshot snapshot = new WalletBalanceSnapshot();
+                snapshot.setWalletId(walletId);
+                snapshot.setSnapshotDate(day);
+                snapshot.setBalance(((Number) row[1]).doubleValue() - flowsSince.getOrDefault(walletId, 0.0));
+                snapshot.setCreatedAt(now);
+                snapshots.add(snapshot);
+            }
+
+            walletBalanceSnapshotRepo.deleteForDate(day, walletIds);
+            walletBalanceSnapshotRepo.saveAll(snapshots);
+            return (long) snapshots.size();
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public WalletBalanceAtDTO getBalanceAt(UUID walletId, LocalDateTime at) {
+        Set<YearMonth> settledMonths = transactionArchiveStore.settledMonths();
+        User currentUser = securityUtil.getCurrentUser();
+
+        if (currentUser == null) {
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
+        }
+
+        if (!securityUtil.isAdmin()) {
+            if (!walletOwnershipIndex.authorize(walletId, currentUser.getId())) {
+                throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: You can only access your own wallets");
+            }
+        }
+
+        Wallet wallet = walletRepo.findById(walletId)
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found with id: " + walletId));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (at == null || !at.isBefore(now)) {
+            return new WalletBalanceAtDTO(walletId, now, wallet.getBalance(), null);
+        }
+
+        if (wallet.getCreatedAt() != null && at.isBefore(wallet.getCreatedAt())) {
+            throw new ValidationException("Wallet did not exist at " + at);
+        }
+
+        // Latest snapshot whose end-of-day boundary is not after 'at'
+        Optional<WalletBalanceSnapshot> snapshot = walletBalanceSnapshotRepo
+                .findFirstByWalletIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(
+                        walletId, at.toLocalDate().minusDays(1));
+
+        if (snapshot.isPresent()) {
+            LocalDateTime snapshotBoundary = snapshot.get().getSnapshotDate().plusDays(1).atStartOfDay();
+            double delta = walletFlowCalculator.netFlows(List.of(walletId), snapshotBoundary, at, settledMonths)
+                    .getOrDefault(walletId, 0.0);
+            return new WalletBalanceAtDTO(walletId, at, snapshot.get().getBalance() + delta,
+                    snapshot.get().getSnapshotDate());
+        }
+
+        double flowSince = walletFlowCalculator.netFlows(List.of(walletId), at, now, settledMonths).getOrDefault(walletId, 0.0);
+        return new WalletBalanceAtDTO(walletId, at, wallet.getBalance() - flowSince, null);
+    }
+}
@@ -0,0 +1,427 @@
+package com.example.E_Wallet.Service;
+
+import com.example.E_Wallet.DTO.BulkRowResultDTO;
+import com.example.E_Wallet.DTO.UserCreateDTO;
+import com.example.E_Wallet.DTO.WalletCreateDTO;
+import com.example.E_Wallet.Exceptions.ValidationException;
+import com.example.E_Wallet.Model.User;
+import com.example.E_Wallet.Model.Wallet;
+import com.example.E_Wallet.Repository.UserRepo;
+import com.example.E_Wallet.Repository.WalletRepo;
+import com.example.E_Wallet.Security.SecurityUtil;
+import com.example.E_Wallet.Security.WalletOwnershipIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Imports users and wallets from NDJSON in chunks.
+ *
+ * Imports run on the service's own executor. On shutdown each running import
+ * completes its current chunk and then reports the line it stopped at, so
+ * nothing is left half-written and unreported.
+ *
+ * Lines are read from the caller's iterator one chunk at a time, so the
+ * whole body is never held in memory. Each chunk is validated with set-based
+ * queries, hashed in parallel on a bounded ForkJoin pool and inserted in a
+ * single JDBC-batched transaction; if that insert fails, the chunk's rows are
+ * retried one by one so only the rows that cannot be stored are failed.
+ * Results are handed to the sink chunk by chunk so callers can stream them.
+ */
+@Service
+public class BulkProvisioningService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkProvisioningService.class);
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private SecurityUtil securityUtil;
+
+    @Autowired
+    private WalletOwnershipIndex walletOwnershipIndex;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${bulk.hashing.parallelism:4}")
+    private int hashingParallelism;
+
+    @Value("${bulk.shutdown-wait-ms:30000}")
+    private long shutdownWaitMillis;
+
+    private ForkJoinPool hashingPool;
+
+    private final ExecutorService importExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile boolean stopping;
+
+    @PostConstruct
+    public void initHashingPool() {
+        hashingPool = new ForkJoinPool(Math.max(1, hashingParallelism));
+    }
+
+    // Running imports finish the chunk they are on, report where they stopped and return
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        importExecutor.shutdown();
+        try {
+            if (!importExecutor.awaitTermination(shutdownWaitMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("event=bulk_import_shutdown_timeout waitMs={}", shutdownWaitMillis);
+                importExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        hashingPool.shutdown();
+    }
+
+    /**
+     * Runs an import on its own virtual thread, so the request thread is not
+     * held for the whole upload. Rejected once shutdown has begun.
+     */
+    public void submitImport(Runnable importTask) {
+        importExecutor.execute(importTask);
+    }
+
+    public void checkAdminAccess() {
+        User currentUser = securityUtil.getCurrentUser();
+
+        if (currentUser == null) {
+            throw new ValidationException("User not authenticated");
+        }
+
+        if (!securityUtil.isAdmin()) {
+            throw new ValidationException("Access denied: Only admins can perform bulk provisioning");
+        }
+    }
+
+    public void importUsers(Iterator<String> lines, Consumer<List<BulkRowResultDTO>> sink) {
+        importInChunks(lines, sink, this::importUserChunk);
+    }
+
+    public void importWallets(Iterator<String> lines, Consumer<List<BulkRowResultDTO>> sink) {
+        importInChunks(lines, sink, this::importWalletChunk);
+    }
+
+    private void importInChunks(Iterator<String> lines, Consumer<List<BulkRowResultDTO>> sink,
+                                BiFunction<List<String>, Integer, List<BulkRowResultDTO>> importChunk) {
+        int firstLine = 1;
+        List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+        // A full chunk is imported before asking for more input, so results never wait on the client
+        while (lines.hasNext()) {
+            chunk.add(lines.next());
+            if (chunk.size() == CHUNK_SIZE || !lines.hasNext()) {
+                if (stopping) {
+                    sink.accept(List.of(failed(firstLine, "Import stopped: the server is shutting down. "
+                            + "This line and all later lines were not imported")));
+                    return;
+                }
+                sink.accept(importChunk.apply(chunk, firstLine));
+                firstLine += chunk.size();
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+    }
+
+    private List<BulkRowResultDTO> importUserChunk(List<String> lines, int firstLine) {
+        List<BulkRowResultDTO> results = new ArrayList<>();
+        List<Integer> candidateLines = new ArrayList<>();
+        List<UserCreateDTO> candidates = new ArrayList<>();
+        Set<String> chunkEmails = new HashSet<>();
+
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            int lineNumber = firstLine + i;
+
+            UserCreateDTO dto;
+            try {
+                dto = objectMapper.readValue(line, UserCreateDTO.class);
+            } catch (JsonProcessingException e) {
+                results.add(failed(lineNumber, "Malformed JSON: " + e.getOriginalMessage()));
+                continue;
+            }
+
+            String error = validateUser(dto);
+            if (error == null && !chunkEmails.add(dto.getEmail())) {
+                error = "Duplicate email '" + dto.getEmail() + "' in request";
+            }
+            if (error != null) {
+                results.add(failed(lineNumber, error));
+                continue;
+            }
+
+            candidateLines.add(lineNumber);
+            candidates.add(dto);
+        }
+
+        Set<String> existingEmails = chunkEmails.isEmpty()
+                ? Set.of()
+                : new HashSet<>(userRepo.findExistingEmails(chunkEmails));
+
+        List<Integer> insertLines = new ArrayList<>();
+        List<UserCreateDTO> toInsert = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            UserCreateDTO dto = candidates.get(i);
+            if (existingEmails.contains(dto.getEmail())) {
+                results.add(failed(candidateLines.get(i), "User with email '" + dto.getEmail() + "' already exists"));
+            } else {
+                insertLines.add(candidateLines.get(i));
+                toInsert.add(dto);
+            }
+        }
+
+        List<String> hashedPasswords = hashInParallel(toInsert.stream()
+                .map(UserCreateDTO::getPassword)
+                .collect(Collectors.toList()));
+
+        List<User> users = new ArrayList<>(toInsert.size());
+        for (int i = 0; i < toInsert.size(); i++) {
+            UserCreateDTO dto = toInsert.get(i);
+            User user = new User();
+            user.setName(dto.getName());
+            user.setEmail(dto.getEmail());
+            user.setPassword(hashedPasswords.get(i));
+            user.setPhoneNumber(dto.getPhoneNumber());
+            user.setRole(dto.getRole() != null ? dto.getRole() : "USER");
+            users.add(user);
+        }
+
+        List<String> insertErrors = persistChunk(users, userRepo, user -> user.setId(null));
+        for (int i = 0; i < users.size(); i++) {
+            results.add(insertErrors.get(i) == null
+                    ? created(insertLines.get(i), users.get(i).getId())
+                    : failed(insertLines.get(i), insertErrors.get(i)));
+        }
+
+        results.sort(Comparator.comparingInt(BulkRowResultDTO::getLine));
+        return results;
+    }
+
+    private List<BulkRowResultDTO> importWalletChunk(List<String> lines, int firstLine) {
+        List<BulkRowResultDTO> results = new ArrayList<>();
+        List<Integer> candidateLines = new ArrayList<>();
+        List<WalletCreateDTO> candidates = new ArrayList<>();
+        Set<String> chunkAccountNumbers = new HashSet<>();
+        Set<UUID> chunkUserIds = new HashSet<>();
+
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            int lineNumber = firstLine + i;
+
+            WalletCreateDTO dto;
+            try {
+                dto = objectMapper.readValue(line, WalletCreateDTO.class);
+            } catch (JsonProcessingException e) {
+                results.add(failed(lineNumber, "Malformed JSON: " + e.getOriginalMessage()));
+                continue;
+            }
+
+            String error = firstViolation(dto);
+            if (error == null && !chunkAccountNumbers.add(dto.getAccountNumber())) {
+                error = "Duplicate account number '" + dto.getAccountNumber() + "' in request";
+            }
+            if (error != null) {
+                results.add(failed(lineNumber, error));
+                continue;
+            }
+
+            chunkUserIds.add(dto.getUserId());
+            candidateLines.add(lineNumber);
+            candidates.add(dto);
+        }
+
+        Set<String> existingAccountNumbers = chunkAccountNumbers.isEmpty()
+                ? Set.of()
+                : new HashSet<>(walletRepo.findExistingAccountNumbers(chunkAccountNumbers));
+        Set<UUID> knownUserIds = chunkUserIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(userRepo.findExistingIds(chunkUserIds));
+
+        List<Integer> insertLines = new ArrayList<>();
+        List<WalletCreateDTO> toInsert = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            WalletCreateDTO dto = candidates.get(i);
+            if (!knownUserIds.contains(dto.getUserId())) {
+                results.add(failed(candidateLines.get(i), "User not found with id: " + dto.getUserId()));
+            } else if (existingAccountNumbers.contains(dto.getAccountNumber())) {
+                results.add(failed(candidateLines.get(i),
+                        "Account number '" + dto.getAccountNumber() + "' already exists"));
+            } else {
+                insertLines.add(candidateLines.get(i));
+                toInsert.add(dto);
+            }
+        }
+
+        List<String> hashedPasscodes = hashInParallel(toInsert.stream()
+                .map(WalletCreateDTO::getPasscode)
+                .collect(Collectors.toList()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Wallet> wallets = new ArrayList<>(toInsert.size());
+        for (int i = 0; i < toInsert.size(); i++) {
+            WalletCreateDTO dto = toInsert.get(i);
+            Wallet wallet = new Wallet();
+            // Reference only: existence was already checked with findExistingIds
+            wallet.setUser(userRepo.getReferenceById(dto.getUserId()));
+            wallet.setWalletName(dto.getWalletName());
+            wallet.setAccountNumber(dto.getAccountNumber());
+            wallet.setBalance(dto.getBalance());
+            wallet.setOpeningBalance(dto.getBalance());
+            wallet.setPasscode(hashedPasscodes.get(i));
+            wallet.setCreatedAt(now);
+            wallets.add(wallet);
+        }
+
+        List<String> insertErrors = persistChunk(wallets, walletRepo, wallet -> wallet.setId(null));
+        for (int i = 0; i < wallets.size(); i++) {
+            if (insertErrors.get(i) == null) {
+                walletOwnershipIndex.walletSaved(wallets.get(i).getId(), toInsert.get(i).getUserId());
+                results.add(created(insertLines.get(i), wallets.get(i).getId()));
+            } else {
+                results.add(failed(insertLines.get(i), insertErrors.get(i)));
+            }
+        }
+
+        results.sort(Comparator.comparingInt(BulkRowResultDTO::getLine));
+        return results;
+    }
+
+    private String validateUser(UserCreateDTO dto) {
+        if (dto.getEmail() == null || dto.getEmail().trim().isEmpty()) {
+            return "Email is required and cannot be empty";
+        }
+        if (dto.getPassword() == null || dto.getPassword().trim().isEmpty()) {
+            return "Password is required and cannot be empty";
+        }
+        return firstViolation(dto);
+    }
+
+    private <T> String firstViolation(T dto) {
+        Set<ConstraintViolation<T>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.iterator().next().getMessage();
+    }
+
+    private List<String> hashInParallel(List<String> rawValues) {
+        if (rawValues.isEmpty()) {
+            return List.of();
+        }
+        try {
+            // A parallel stream started from inside the pool runs on the pool's workers
+            return hashingPool.submit(() -> rawValues.parallelStream()
+                    .map(passwordEncoder::encode)
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bulk hashing was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Bulk hashing failed", e.getCause());
+        }
+    }
+
+    // Returns one entry per entity: null if it was inserted, otherwise why it was not
+    private <T> List<String> persistChunk(List<T> entities, JpaRepository<T, UUID> repository,
+                                          Consumer<T> clearId) {
+        List<String> errors = new ArrayList<>(Collections.nCopies(entities.size(), null));
+        if (entities.isEmpty()) {
+            return errors;
+        }
+        try {
+            insertInTransaction(() -> repository.saveAll(entities));
+            return errors;
+        } catch (Exception e) {
+            log.warn("event=bulk_insert_failed rows={} detail=\"retrying row by row\" error={}",
+                    entities.size(), e.getMessage());
+        }
+
+        for (int i = 0; i < entities.size(); i++) {
+            T entity = entities.get(i);
+            // The rolled-back batch already gave every entity an id; save would treat it as an existing row
+            clearId.accept(entity);
+            try {
+                insertInTransaction(() -> repository.save(entity));
+            } catch (Exception e) {
+                clearId.accept(entity);
+                errors.set(i, "Insert failed: " + e.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    private void insertInTransaction(Runnable insert) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            insert.run();
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private BulkRowResultDTO created(int line, UUID id) {
+        return new BulkRowResultDTO(line, "created", id, null);
+    }
+
+    private BulkRowResultDTO failed(int line, String message) {
+        return new BulkRowResultDTO(line, "failed", null, message);
+    }
+}
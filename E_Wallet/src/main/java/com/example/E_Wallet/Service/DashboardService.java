@@ -0,0 +1,107 @@
+package com.example.E_Wallet.Service;
+
+import com.example.E_Wallet.DTO.DashboardDTO;
+import com.example.E_Wallet.DTO.DashboardWalletDTO;
+import com.example.E_Wallet.DTO.TransactionDTO;
+import com.example.E_Wallet.Exceptions.ErrorCode;
+import com.example.E_Wallet.Exceptions.ValidationException;
+import com.example.E_Wallet.Repository.OtpRepo;
+import com.example.E_Wallet.Repository.TransactionRepo;
+import com.example.E_Wallet.Repository.WalletRepo;
+import com.example.E_Wallet.Security.SecurityUtil;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Home screen in one call: wallets with balances, the SQL total, the latest
+ * transactions and the number of OTPs still waiting for verification.
+ *
+ * The four parts are independent projection queries, so they run concurrently
+ * on virtual threads. Each holds a pooled connection only for its own query.
+ */
+@Service
+public class DashboardService {
+
+    private static final int MAX_RECENT_TRANSACTIONS = 50;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private TransactionRepo transactionRepo;
+
+    @Autowired
+    private OtpRepo otpRepo;
+
+    @Autowired
+    private SecurityUtil securityUtil;
+
+    @Value("${dashboard.recent-transactions:10}")
+    private int defaultRecentTransactions;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public DashboardDTO getDashboard(Integer recentLimit) {
+        // Resolved here: the security context does not follow the work onto other threads
+        UUID userId = securityUtil.getCurrentUserId();
+        if (userId == null) {
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
+        }
+
+        int limit = recentLimit != null ? recentLimit : defaultRecentTransactions;
+        if (limit < 1 || limit > MAX_RECENT_TRANSACTIONS) {
+            throw new ValidationException("Recent transaction limit must be between 1 and " + MAX_RECENT_TRANSACTIONS);
+        }
+
+        CompletableFuture<List<Object[]>> wallets = CompletableFuture.supplyAsync(
+                () -> walletRepo.findDashboardRows(userId), executor);
+        CompletableFuture<Double> total = CompletableFuture.supplyAsync(
+                () -> walletRepo.sumBalanceByUserId(userId), executor);
+        CompletableFuture<List<Object[]>> recent = CompletableFuture.supplyAsync(
+                () -> transactionRepo.findRecentRowsByUserId(userId, PageRequest.of(0, limit)), executor);
+        CompletableFuture<Long> pendingOtps = CompletableFuture.supplyAsync(
+                () -> otpRepo.countPendingByUserId(userId, LocalDateTime.now()), executor);
+
+        try {
+            CompletableFuture.allOf(wallets, total, recent, pendingOtps).join();
+        } catch (CompletionException e) {
+            // Surface the repository's own exception rather than the wrapper
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+
+        List<DashboardWalletDTO> walletDTOs = new ArrayList<>();
+        for (Object[] row : wallets.join()) {
+            walletDTOs.add(new DashboardWalletDTO(
+                    (UUID) row[0], (String) row[1], (String) row[2], ((Number) row[3]).doubleValue()));
+        }
+
+        List<TransactionDTO> transactionDTOs = new ArrayList<>();
+        for (Object[] row : recent.join()) {
+            transactionDTOs.add(new TransactionDTO(
+                    (UUID) row[0], (UUID) row[1], (UUID) row[2], ((Number) row[3]).doubleValue(),
+                    (LocalDateTime) row[4], (String) row[5], (String) row[6]));
+        }
+
+        return new DashboardDTO(walletDTOs, total.join(), transactionDTOs, pendingOtps.join());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
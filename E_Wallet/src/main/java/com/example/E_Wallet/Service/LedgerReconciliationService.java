@@ -0,0 +1,143 @@
+package com.example.E_Wallet.Service;
+
+import com.example.E_Wallet.DTO.JobRunDTO;
+import com.example.E_Wallet.DTO.LedgerDiscrepancyDTO;
+import com.example.E_Wallet.DTO.ReconciliationReportDTO;
+import com.example.E_Wallet.Repository.TransactionRepo;
+import com.example.E_Wallet.Repository.WalletRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Checks every wallet's balance against its opening balance plus the net
+ * flow of its successful transactions.
+ *
+ * Wallets are split into ID-ordered partitions; each partition is summed
+ * with GROUP BY queries in its own read-only transaction, so balances and
+ * flows are read from one consistent view. Wallets created before opening
+ * balances were tracked have no baseline, so they cannot be checked; they
+ * are skipped and listed in the report so they can be backfilled by hand.
+ */
+@Service
+public class LedgerReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerReconciliationService.class);
+
+    private static final int PARTITION_SIZE = 1000;
+    private static final int MAX_REPORTED_DISCREPANCIES = 1000;
+    private static final double TOLERANCE = 0.005;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private TransactionRepo transactionRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PartitionedJobRunner partitionedJobRunner;
+
+    @Value("${reconciliation.parallelism:4}")
+    private int reconciliationParallelism;
+
+    public ReconciliationReportDTO reconcile() {
+        long startNanos = System.nanoTime();
+        List<UUID> walletIds = walletRepo.findAllIds();
+
+        Queue<LedgerDiscrepancyDTO> discrepancies = new ConcurrentLinkedQueue<>();
+        Queue<UUID> withoutBaseline = new ConcurrentLinkedQueue<>();
+
+        long transactionsScanned = partitionedJobRunner.run("Ledger reconciliation", walletIds,
+                PARTITION_SIZE, reconciliationParallelism,
+                partition -> reconcilePartition(partition, discrepancies, withoutBaseline));
+
+        JobRunDTO run = partitionedJobRunner.summarize("ledger-reconciliation",
+                transactionsScanned, discrepancies.size(), startNanos);
+
+        List<LedgerDiscrepancyDTO> reported = discrepancies.stream()
+                .sorted(Comparator.comparingDouble((LedgerDiscrepancyDTO d) -> Math.abs(d.getDifference())).reversed())
+                .limit(MAX_REPORTED_DISCREPANCIES)
+                .collect(Collectors.toList());
+
+        List<UUID> unchecked = withoutBaseline.stream()
+                .sorted()
+                .limit(MAX_REPORTED_DISCREPANCIES)
+                .collect(Collectors.toList());
+
+        log.info("event=ledger_reconciliation wallets={} discrepancies={} withoutBaseline={} durationMs={}",
+                walletIds.size(), discrepancies.size(), withoutBaseline.size(), run.getDurationMs());
+        if (!withoutBaseline.isEmpty()) {
+            log.warn("event=ledger_reconciliation_skipped wallets={} reason=no_opening_balance",
+                    withoutBaseline.size());
+        }
+
+        return new ReconciliationReportDTO(run, walletIds.size(), withoutBaseline.size(),
+                discrepancies.size(), reported, unchecked);
+    }
+
+    // Returns the number of transactions that went into this partition's sums
+    private long reconcilePartition(List<UUID> walletIds, Queue<LedgerDiscrepancyDTO> discrepancies,
+                                    Queue<UUID> withoutBaseline) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        return transactionTemplate.execute(status -> {
+            List<Object[]> baselines = walletRepo.findLedgerBaselines(walletIds);
+
+            Map<UUID, Double> flows = new HashMap<>();
+            long scanned = 0;
+
+            for (Object[] row : transactionRepo.sumSuccessfulBySender(walletIds)) {
+                scanned += ((Number) row[3]).longValue();
+                String type = WalletAnalyticsService.classify((String) row[1]);
+                if (type == null) {
+                    continue;
+                }
+                double sum = ((Number) row[2]).doubleValue();
+                flows.merge((UUID) row[0], "CREDIT".equals(type) ? sum : -sum, Double::sum);
+            }
+
+            for (Object[] row : transactionRepo.sumSuccessfulTransfersByReceiver(walletIds)) {
+                scanned += ((Number) row[2]).longValue();
+                flows.merge((UUID) row[0], ((Number) row[1]).doubleValue(), Double::sum);
+            }
+
+            List<LedgerDiscrepancyDTO> found = new ArrayList<>();
+            for (Object[] row : baselines) {
+                UUID walletId = (UUID) row[0];
+                double recorded = ((Number) row[1]).doubleValue();
+                if (row[2] == null) {
+                    withoutBaseline.add(walletId);
+                    continue;
+                }
+
+                double expected = ((Number) row[2]).doubleValue() + flows.getOrDefault(walletId, 0.0);
+                double difference = recorded - expected;
+                if (Math.abs(difference) > TOLERANCE) {
+                    found.add(new LedgerDiscrepancyDTO(walletId, recorded, expected, difference));
+                }
+            }
+            discrepancies.addAll(found);
+            return scanned;
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.E_Wallet.Service;
+
+import com.example.E_Wallet.Model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Local transport: appends one JSON line per event to outbox.log-file
+@Component
+@ConditionalOnProperty(name = "outbox.transport", havingValue = "log", matchIfMissing = true)
+public class LogFileOutboxTransport implements OutboxTransport {
+
+    @Value("${outbox.log-file:./logs/wallet-events.log}")
+    private String logFile;
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) throws IOException {
+        Path path = Paths.get(logFile);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (OutboxEvent event : events) {
+                writer.write(event.getPayload());
+                writer.newLine();
+            }
+        }
+    }
+}
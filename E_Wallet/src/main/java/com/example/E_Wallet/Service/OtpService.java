@@ -1,16 +1,18 @@
 package com.example.E_Wallet.Service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.annotation.Propagation;
 import com.example.E_Wallet.Model.Otp;
-import com.example.E_Wallet.Model.Transaction;
 import com.example.E_Wallet.Repository.OtpRepo;
 import com.example.E_Wallet.Repository.TransactionRepo;
 import com.example.E_Wallet.Exceptions.ResourceNotFoundException;
 import com.example.E_Wallet.Exceptions.ValidationException;
+import com.example.E_Wallet.Exceptions.ErrorCode;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.Random;
@@ -19,6 +21,8 @@ import java.util.UUID;
 @Service
 public class OtpService {
 
+    private static final Logger log = LoggerFactory.getLogger(OtpService.class);
+
     @Autowired
     private OtpRepo otpRepo;
 
@@ -31,6 +35,12 @@ public class OtpService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private StatementCache statementCache;
+
+    @Autowired
+    private TransactionEventBus transactionEventBus;
+
     private static final int OTP_LENGTH = 6;
     private static final int OTP_EXPIRY_MINUTES = 5;
     private static final int MAX_ATTEMPTS = 3;
@@ -91,12 +101,12 @@ public class OtpService {
         if (LocalDateTime.now().isAfter(otp.getExpiresAt())) {
             markOtpAsExpired(transactionId);
             markTransactionAsFailed(transactionId, "OTP expired");
-            throw new ValidationException("OTP has expired. Please initiate a new transaction.");
+            throw new ValidationException(ErrorCode.OTP_EXPIRED, "OTP has expired. Please initiate a new transaction.");
         }
 
         if (otp.getAttemptCount() >= MAX_ATTEMPTS) {
             markTransactionAsFailed(transactionId, "Wrong OTP");
-            throw new ValidationException("Transaction has failed. Maximum OTP verification attempts exceeded.");
+            throw new ValidationException(ErrorCode.OTP_ATTEMPTS_EXCEEDED, "Transaction has failed. Maximum OTP verification attempts exceeded.");
         }
 
         if (passwordEncoder.matches(enteredOtp, otp.getOtpCode())) {
@@ -107,11 +117,11 @@ public class OtpService {
 
             if (newAttemptCount >= MAX_ATTEMPTS) {
                 markTransactionAsFailed(transactionId, "Wrong OTP");
-                throw new ValidationException("Transaction has failed. Maximum OTP verification attempts exceeded.");
+                throw new ValidationException(ErrorCode.OTP_ATTEMPTS_EXCEEDED, "Transaction has failed. Maximum OTP verification attempts exceeded.");
             }
 
             int remainingAttempts = MAX_ATTEMPTS - newAttemptCount;
-            throw new ValidationException("Incorrect OTP. Attempts remaining: " + remainingAttempts);
+            throw new ValidationException(ErrorCode.OTP_INCORRECT, "Incorrect OTP. Attempts remaining: " + remainingAttempts);
         }
     }
 
@@ -141,13 +151,18 @@ public class OtpService {
         otpRepo.saveAndFlush(otp);
     }
 
+    // Standing order consent OTPs are keyed by the order id and have no transaction
     private void markTransactionAsFailed(UUID transactionId, String remark) {
-        Transaction transaction = transactionRepo.findById(transactionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found: " + transactionId));
-
-        transaction.setStatus("failed");
-        transaction.setRemarks(remark);
-        transactionRepo.save(transaction);
+        transactionRepo.findById(transactionId).ifPresent(transaction -> {
+            transaction.setStatus("failed");
+            transaction.setRemarks(remark);
+            transactionRepo.save(transaction);
+
+            // A late verify can fail a row that cached statements already show as pending
+            statementCache.invalidate(transaction.getSenderWallet().getUser().getId());
+            statementCache.invalidate(transaction.getReceiverWallet().getUser().getId());
+            transactionEventBus.publishAfterCommit(transaction);
+        });
     }
 
     private void sendOtpEmail(String toEmail, String otpCode, String transactionType) {
@@ -156,7 +171,7 @@ public class OtpService {
             String emailBody = buildOtpEmailBody(otpCode, transactionType);
             emailService.sendSimpleEmail(toEmail, subject, emailBody);
         } catch (Exception e) {
-            System.err.println("Failed to send OTP email: " + e.getMessage());
+            log.warn("event=otp_email_failed type={} error={}", transactionType, e.getMessage());
         }
     }
 
@@ -0,0 +1,180 @@
+package com.example.E_Wallet.Service;
+
+import com.example.E_Wallet.Model.OutboxEvent;
+import com.example.E_Wallet.Model.Transaction;
+import com.example.E_Wallet.Repository.OutboxEventRepo;
+import com.example.E_Wallet.Repository.WalletRepo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transactional outbox for wallet domain events.
+ *
+ * The event row is inserted in the same transaction as the balance update, so
+ * an event exists exactly when the balance change committed. The relay reads
+ * events in id order, hands each batch to the OutboxTransport and deletes the
+ * batch in the same transaction. If publishing or the delete fails, the batch
+ * stays and is sent again on the next poll, so delivery is at-least-once.
+ *
+ * Ids are assigned at insert, not at commit, so a slow transaction can commit
+ * an id lower than one already relayed; id order alone is only best-effort.
+ * The order consumers can rely on is per wallet: every event carries
+ * senderSequence and receiverSequence, the wallets' event counters advanced in
+ * the same transaction. The UPDATE that advances a counter holds the wallet row
+ * until commit, so a wallet's numbers are gapless and follow commit order. A
+ * consumer that sees a number more than one past the last it applied for that
+ * wallet should hold the event until the missing one arrives, and drop numbers
+ * it has already applied, since redelivery is possible. The relay still waits
+ * outbox.relay.min-age-ms so such gaps are rare.
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    @Autowired
+    private OutboxEventRepo outboxEventRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private OutboxTransport outboxTransport;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.min-age-ms:2000}")
+    private long minAgeMillis;
+
+    private final AtomicBoolean relaying = new AtomicBoolean(false);
+
+    // Must run inside the transaction that marks the transaction as success
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransactionEvent(Transaction transaction) {
+        String type = WalletAnalyticsService.classify(transaction.getRemarks());
+        if (type == null) {
+            return;
+        }
+
+        String eventType;
+        switch (type) {
+            case "CREDIT":
+                eventType = "WalletCredited";
+                break;
+            case "WITHDRAW":
+                eventType = "WalletDebited";
+                break;
+            default:
+                eventType = "TransferCompleted";
+                break;
+        }
+
+        UUID senderWalletId = transaction.getSenderWallet().getId();
+        UUID receiverWalletId = transaction.getReceiverWallet().getId();
+        Map<UUID, Long> sequences = nextEventSequences(senderWalletId, receiverWalletId);
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("eventType", eventType);
+        payload.put("transactionId", transaction.getId());
+        payload.put("senderWalletId", senderWalletId);
+        payload.put("senderSequence", sequences.get(senderWalletId));
+        payload.put("receiverWalletId", receiverWalletId);
+        payload.put("receiverSequence", sequences.get(receiverWalletId));
+        payload.put("amount", transaction.getAmount());
+        payload.put("senderBalance", transaction.getSenderWallet().getBalance());
+        payload.put("receiverBalance", transaction.getReceiverWallet().getBalance());
+        payload.put("occurredAt", transaction.getTransactionDate().toString());
+
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setTransactionId(transaction.getId());
+        event.setCreatedAt(LocalDateTime.now());
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox event", e);
+        }
+        outboxEventRepo.save(event);
+    }
+
+    // Credits and withdrawals name the same wallet twice; it gets one number, not two
+    private Map<UUID, Long> nextEventSequences(UUID senderWalletId, UUID receiverWalletId) {
+        Set<UUID> walletIds = new HashSet<>(List.of(senderWalletId, receiverWalletId));
+        walletRepo.advanceEventSequence(walletIds);
+
+        Map<UUID, Long> sequences = new HashMap<>();
+        for (Object[] row : walletRepo.findEventSequences(walletIds)) {
+            sequences.put((UUID) row[0], ((Number) row[1]).longValue());
+        }
+        return sequences;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:1000}")
+    public void relayOnSchedule() {
+        if (!relaying.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            while (relayBatch() == batchSize) {
+                // keep draining while batches come back full
+            }
+        } catch (Exception e) {
+            log.warn("event=outbox_relay_failed detail=\"will retry\" error={}", e.getMessage());
+        } finally {
+            relaying.set(false);
+        }
+    }
+
+    private int relayBatch() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> {
+            LocalDateTime before = LocalDateTime.now().minusNanos(minAgeMillis * 1_000_000);
+            List<OutboxEvent> events = outboxEventRepo.findRelayBatch(before, PageRequest.of(0, batchSize));
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                outboxTransport.publish(events);
+            } catch (Exception e) {
+                throw new IllegalStateException("Outbox transport rejected batch: " + e.getMessage(), e);
+            }
+
+            List<Long> ids = new ArrayList<>(events.size());
+            for (OutboxEvent event : events) {
+                ids.add(event.getId());
+            }
+            outboxEventRepo.deleteByIds(ids);
+            return events.size();
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.E_Wallet.Service;
+
+import com.example.E_Wallet.Model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination for relayed wallet events. A batch counts as delivered only
+ * when publish returns normally; on an exception the whole batch is retried,
+ * so implementations must tolerate duplicates (at-least-once).
+ */
+public interface OutboxTransport {
+
+    void publish(List<OutboxEvent> events) throws Exception;
+}
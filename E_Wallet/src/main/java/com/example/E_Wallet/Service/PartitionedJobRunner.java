@@ -0,0 +1,55 @@
+package com.example.E_Wallet.Service;
+
+import com.example.E_Wallet.DTO.JobRunDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Splits a list of keys (usually wallet IDs) into fixed-size partitions and
+ * runs a task over each partition on a bounded thread pool.
+ */
+@Component
+public class PartitionedJobRunner {
+
+    // Returns the sum of the per-partition results
+    public <K> long run(String jobName, List<K> keys, int partitionSize, int parallelism,
+                        Function<List<K>, Long> task) {
+        List<List<K>> partitions = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i += partitionSize) {
+            partitions.add(keys.subList(i, Math.min(i + partitionSize, keys.size())));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        long total = 0;
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (List<K> partition : partitions) {
+                futures.add(pool.submit(() -> task.apply(partition)));
+            }
+            for (Future<Long> future : futures) {
+                total += future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(jobName + " was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(jobName + " failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return total;
+    }
+
+    public JobRunDTO summarize(String jobName, long itemsProcessed, long rowsWritten, long startNanos) {
+        long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+        double itemsPerSecond = durationMs > 0 ? itemsProcessed * 1000.0 / durationMs : itemsProcessed;
+        return new JobRunDTO(jobName, itemsProcessed, rowsWritten, durationMs, itemsPerSecond);
+    }
+}
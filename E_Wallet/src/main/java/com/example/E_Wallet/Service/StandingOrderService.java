@@ -0,0 +1,367 @@
+package com.example.E_Wallet.Service;
+
+import com.example.E_Wallet.DTO.JobRunDTO;
+import com.example.E_Wallet.DTO.StandingOrderCreateDTO;
+import com.example.E_Wallet.DTO.StandingOrderDTO;
+import com.example.E_Wallet.Exceptions.ErrorCode;
+import com.example.E_Wallet.Exceptions.ResourceNotFoundException;
+import com.example.E_Wallet.Exceptions.ValidationException;
+import com.example.E_Wallet.Model.StandingOrder;
+import com.example.E_Wallet.Model.Transaction;
+import com.example.E_Wallet.Model.User;
+import com.example.E_Wallet.Model.Wallet;
+import com.example.E_Wallet.Repository.StandingOrderRepo;
+import com.example.E_Wallet.Repository.WalletRepo;
+import com.example.E_Wallet.Security.SecurityUtil;
+import com.example.E_Wallet.Security.WalletOwnershipIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Standing orders: recurring transfers consented to once with an OTP.
+ *
+ * The scheduler selects source wallets with due orders through the
+ * (status, next_run_at) index and splits them into partitions. All due orders
+ * of a source wallet land in the same partition and run one after another in
+ * next-run order, so a wallet's orders never race each other. Each order runs
+ * in its own transaction, so an order that throws rolls back alone and is
+ * recorded as failed. Transfers go through
+ * WalletService.postStandingOrderTransfer, and every execution leaves the last
+ * outcome on the order, plus a transaction row unless it threw. Missed
+ * occurrences (e.g. after downtime) are executed once, not replayed.
+ */
+@Service
+public class StandingOrderService {
+
+    private static final Logger log = LoggerFactory.getLogger(StandingOrderService.class);
+
+    private static final int PARTITION_SIZE = 200;
+
+    @Autowired
+    private StandingOrderRepo standingOrderRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private OtpService otpService;
+
+    @Autowired
+    private SecurityUtil securityUtil;
+
+    @Autowired
+    private WalletOwnershipIndex walletOwnershipIndex;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PartitionedJobRunner partitionedJobRunner;
+
+    @Value("${standing-orders.parallelism:4}")
+    private int parallelism;
+
+    @Value("${standing-orders.max-consecutive-failures:3}")
+    private int maxConsecutiveFailures;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public UUID createStandingOrder(StandingOrderCreateDTO createDTO) {
+        User currentUser = securityUtil.getCurrentUser();
+        if (currentUser == null) {
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
+        }
+
+        if (createDTO.getAmount() == null || createDTO.getAmount() <= 0) {
+            throw new ValidationException(ErrorCode.INVALID_AMOUNT, "Amount must be greater than 0");
+        }
+
+        if (createDTO.getSourceWalletId().equals(createDTO.getDestinationWalletId())) {
+            throw new ValidationException("Source and destination wallets cannot be the same");
+        }
+
+        if (!walletOwnershipIndex.authorize(createDTO.getSourceWalletId(), currentUser.getId())) {
+            throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: You can only transfer from your own wallets");
+        }
+
+        Wallet sourceWallet = walletRepo.findById(createDTO.getSourceWalletId())
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Source wallet not found with id: " + createDTO.getSourceWalletId()));
+        Wallet destinationWallet = walletRepo.findById(createDTO.getDestinationWalletId())
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Destination wallet not found with id: " + createDTO.getDestinationWalletId()));
+
+        if (!passwordEncoder.matches(createDTO.getPasscode(), sourceWallet.getPasscode())) {
+            throw new ValidationException(ErrorCode.INVALID_PASSCODE, "Invalid passcode");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime startAt = createDTO.getStartAt() != null ? createDTO.getStartAt() : now;
+        if (startAt.isBefore(now.minusMinutes(1))) {
+            throw new ValidationException("Start time cannot be in the past");
+        }
+        if (createDTO.getEndAt() != null && createDTO.getEndAt().isBefore(startAt)) {
+            throw new ValidationException("End time cannot be before start time");
+        }
+
+        StandingOrder order = new StandingOrder();
+        order.setUserId(currentUser.getId());
+        order.setSourceWallet(sourceWallet);
+        order.setDestinationWallet(destinationWallet);
+        order.setAmount(createDTO.getAmount());
+        order.setFrequency(createDTO.getFrequency().toUpperCase());
+        order.setStartAt(startAt);
+        order.setEndAt(createDTO.getEndAt());
+        order.setNextRunAt(startAt);
+        order.setStatus("pending_consent");
+        order.setCreatedAt(now);
+        order = standingOrderRepo.save(order);
+
+        otpService.createAndSendOtp(order.getId(), currentUser.getId(), currentUser.getEmail(), "STANDING_ORDER");
+
+        return order.getId();
+    }
+
+    public void confirmStandingOrder(UUID orderId, String otp) {
+        StandingOrder order = findOwnedOrder(orderId);
+
+        if (!"pending_consent".equals(order.getStatus())) {
+            throw new ValidationException("Standing order is not awaiting confirmation");
+        }
+
+        try {
+            otpService.verifyOtp(orderId, otp);
+        } catch (ValidationException e) {
+            if (e.getErrorCode() == ErrorCode.OTP_EXPIRED || e.getErrorCode() == ErrorCode.OTP_ATTEMPTS_EXCEEDED) {
+                order.setStatus("cancelled");
+                standingOrderRepo.save(order);
+            }
+            throw e;
+        }
+
+        // A start time that passed while waiting for the OTP simply makes the first run due now
+        order.setStatus("active");
+        standingOrderRepo.save(order);
+    }
+
+    public void cancelStandingOrder(UUID orderId) {
+        StandingOrder order = findOwnedOrder(orderId);
+
+        if ("cancelled".equals(order.getStatus()) || "completed".equals(order.getStatus())) {
+            throw new ValidationException("Standing order is already " + order.getStatus());
+        }
+
+        order.setStatus("cancelled");
+        standingOrderRepo.save(order);
+    }
+
+    public List<StandingOrderDTO> getStandingOrders() {
+        User currentUser = securityUtil.getCurrentUser();
+        if (currentUser == null) {
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
+        }
+
+        List<StandingOrder> orders = securityUtil.isAdmin()
+                ? standingOrderRepo.findAll()
+                : standingOrderRepo.findByUserIdOrderByCreatedAtDesc(currentUser.getId());
+
+        return orders.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(fixedDelayString = "${standing-orders.poll-interval-ms:60000}")
+    public void executeDueOrdersOnSchedule() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executeDueOrders(LocalDateTime.now());
+        } catch (Exception e) {
+            log.error("event=standing_order_run_failed error={}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public JobRunDTO runNow() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ValidationException("A standing order run is already in progress");
+        }
+        try {
+            return executeDueOrders(LocalDateTime.now());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private JobRunDTO executeDueOrders(LocalDateTime now) {
+        long startNanos = System.nanoTime();
+        List<UUID> sourceWalletIds = standingOrderRepo.findSourceWalletIdsWithDueOrders(now);
+        AtomicLong succeeded = new AtomicLong();
+
+        long executed = partitionedJobRunner.run("Standing orders", sourceWalletIds,
+                PARTITION_SIZE, parallelism, partition -> executePartition(partition, now, succeeded));
+
+        return partitionedJobRunner.summarize("standing-orders", executed, succeeded.get(), startNanos);
+    }
+
+    private long executePartition(List<UUID> sourceWalletIds, LocalDateTime now, AtomicLong succeeded) {
+        long executed = 0;
+        for (UUID orderId : standingOrderRepo.findDueIdsBySourceWallets(sourceWalletIds, now)) {
+            String status;
+            try {
+                status = executeOrder(orderId, now);
+            } catch (Exception e) {
+                log.warn("event=standing_order_failed order={} error={}", orderId, e.getMessage());
+                status = recordFailure(orderId, now);
+            }
+            if (status != null) {
+                executed++;
+                if ("success".equals(status)) {
+                    succeeded.incrementAndGet();
+                }
+            }
+        }
+        return executed;
+    }
+
+    // Null when the order is no longer due, e.g. a concurrent run has already executed it
+    private String executeOrder(UUID orderId, LocalDateTime now) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> {
+            StandingOrder order = standingOrderRepo.lockIfDue(orderId, now).orElse(null);
+            if (order == null) {
+                return null;
+            }
+
+            TreeSet<UUID> walletIds = new TreeSet<>();
+            walletIds.add(order.getSourceWallet().getId());
+            walletIds.add(order.getDestinationWallet().getId());
+            Map<UUID, Wallet> wallets = new HashMap<>();
+            for (Wallet wallet : walletRepo.lockAllByIdIn(walletIds)) {
+                wallets.put(wallet.getId(), wallet);
+            }
+
+            Wallet source = wallets.get(order.getSourceWallet().getId());
+            Wallet destination = wallets.get(order.getDestinationWallet().getId());
+            Transaction transaction = walletService.postStandingOrderTransfer(source, destination, order.getAmount());
+            recordOutcome(order, transaction.getStatus(), transaction.getId(), now);
+            return transaction.getStatus();
+        });
+    }
+
+    // The execution was rolled back; the failure is recorded in a transaction of its own
+    private String recordFailure(UUID orderId, LocalDateTime now) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            return transactionTemplate.execute(status -> {
+                StandingOrder order = standingOrderRepo.lockIfDue(orderId, now).orElse(null);
+                if (order == null) {
+                    return null;
+                }
+                recordOutcome(order, "failed", null, now);
+                return "failed";
+            });
+        } catch (Exception e) {
+            log.warn("event=standing_order_failure_not_recorded order={} error={}", orderId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void recordOutcome(StandingOrder order, String status, UUID transactionId, LocalDateTime now) {
+        order.setLastRunAt(now);
+        order.setLastRunStatus(status);
+        order.setLastTransactionId(transactionId);
+
+        if ("success".equals(status)) {
+            order.setConsecutiveFailures(0);
+        } else {
+            order.setConsecutiveFailures(order.getConsecutiveFailures() + 1);
+        }
+
+        // Skip occurrences that are already in the past
+        LocalDateTime next;
+        do {
+            order.setRunCount(order.getRunCount() + 1);
+            next = occurrence(order.getStartAt(), order.getFrequency(), order.getRunCount());
+        } while (!next.isAfter(now));
+        order.setNextRunAt(next);
+
+        if (order.getConsecutiveFailures() >= maxConsecutiveFailures) {
+            order.setStatus("suspended");
+        } else if (order.getEndAt() != null && next.isAfter(order.getEndAt())) {
+            order.setStatus("completed");
+        }
+    }
+
+    // Counted from the start so monthly orders on the 31st keep their day where the month allows it
+    static LocalDateTime occurrence(LocalDateTime startAt, String frequency, int n) {
+        switch (frequency) {
+            case "DAILY":
+                return startAt.plusDays(n);
+            case "WEEKLY":
+                return startAt.plusWeeks(n);
+            case "MONTHLY":
+                return startAt.plusMonths(n);
+            default:
+                throw new IllegalStateException("Unknown standing order frequency: " + frequency);
+        }
+    }
+
+    private StandingOrder findOwnedOrder(UUID orderId) {
+        StandingOrder order = standingOrderRepo.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Standing order not found with id: " + orderId));
+
+        User currentUser = securityUtil.getCurrentUser();
+        if (currentUser == null) {
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
+        }
+
+        if (!securityUtil.isAdmin() && !order.getUserId().equals(currentUser.getId())) {
+            throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: You can only manage your own standing orders");
+        }
+        return order;
+    }
+
+    private StandingOrderDTO convertToDTO(StandingOrder order) {
+        StandingOrderDTO dto = new StandingOrderDTO();
+        dto.setId(order.getId());
+        dto.setSourceWalletId(order.getSourceWallet().getId());
+        dto.setDestinationWalletId(order.getDestinationWallet().getId());
+        dto.setAmount(order.getAmount());
+        dto.setFrequency(order.getFrequency());
+        dto.setStartAt(order.getStartAt());
+        dto.setEndAt(order.getEndAt());
+        dto.setNextRunAt(order.getNextRunAt());
+        dto.setStatus(order.getStatus());
+        dto.setLastRunAt(order.getLastRunAt());
+        dto.setLastRunStatus(order.getLastRunStatus());
+        dto.setLastTransactionId(order.getLastTransactionId());
+        dto.setConsecutiveFailures(order.getConsecutiveFailures());
+        return dto;
+    }
+}
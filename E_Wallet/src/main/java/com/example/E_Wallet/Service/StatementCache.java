@@ -0,0 +1,157 @@
+package com.example.E_Wallet.Service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Per-user cache of already rendered statement rows, kept gzip-compressed in
+ * memory and evicted least-recently-used once the total size passes
+ * statement.cache.max-bytes.
+ *
+ * Each entry holds blocks of CSV rows, newest block first, plus the
+ * high-water mark: the transaction date up to which rows are covered. A
+ * refresh only adds one block for the rows after the mark. Blocks are merged
+ * once there are too many, which keeps the per-block gzip overhead bounded.
+ */
+@Component
+public class StatementCache {
+
+    private static final int MAX_BLOCKS = 32;
+
+    @Value("${statement.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public synchronized CachedRows get(UUID userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        return new CachedRows(entry.highWaterMark, new ArrayList<>(entry.blocks));
+    }
+
+    /**
+     * Adds rows covering (expectedMark, newMark]. Ignored if another request
+     * already moved the mark, so concurrent refreshes never duplicate rows.
+     */
+    public synchronized void append(UUID userId, LocalDateTime expectedMark, LocalDateTime newMark, String rows) {
+        Entry entry = entries.get(userId);
+        LocalDateTime currentMark = entry != null ? entry.highWaterMark : null;
+        if (currentMark == null ? expectedMark != null : !currentMark.equals(expectedMark)) {
+            return;
+        }
+
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(userId, entry);
+        }
+        if (!rows.isEmpty()) {
+            byte[] block = compress(rows.getBytes(StandardCharsets.UTF_8));
+            entry.blocks.addFirst(block);
+            entry.bytes += block.length;
+            totalBytes += block.length;
+        }
+        entry.highWaterMark = newMark;
+
+        if (entry.blocks.size() > MAX_BLOCKS) {
+            compact(entry);
+        }
+        evictOverflow();
+    }
+
+    public synchronized void invalidate(UUID userId) {
+        Entry entry = entries.remove(userId);
+        if (entry != null) {
+            totalBytes -= entry.bytes;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public static void writeBlocks(List<byte[]> blocks, OutputStream out) {
+        for (byte[] block : blocks) {
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(block))) {
+                in.transferTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void compact(Entry entry) {
+        ByteArrayOutputStream merged = new ByteArrayOutputStream();
+        writeBlocks(new ArrayList<>(entry.blocks), merged);
+        byte[] block = compress(merged.toByteArray());
+
+        totalBytes -= entry.bytes;
+        entry.blocks.clear();
+        entry.blocks.addFirst(block);
+        entry.bytes = block.length;
+        totalBytes += block.length;
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<UUID, Entry>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            totalBytes -= it.next().getValue().bytes;
+            it.remove();
+        }
+    }
+
+    private static byte[] compress(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class Entry {
+        LocalDateTime highWaterMark;
+        final Deque<byte[]> blocks = new ArrayDeque<>();
+        long bytes;
+    }
+
+    public static final class CachedRows {
+        private final LocalDateTime highWaterMark;
+        private final List<byte[]> blocks;
+
+        CachedRows(LocalDateTime highWaterMark, List<byte[]> blocks) {
+            this.highWaterMark = highWaterMark;
+            this.blocks = blocks;
+        }
+
+        public LocalDateTime getHighWaterMark() {
+            return highWaterMark;
+        }
+
+        public List<byte[]> getBlocks() {
+            return blocks;
+        }
+    }
+}
@@ -20,6 +20,11 @@ public class StatementCsvBuilder {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     public byte[] buildStatementCsv(User user, List<Transaction> transactions, List<Wallet> userWallets) {
+        String csv = buildHeader(user, userWallets) + buildRows(transactions) + buildFooter(userWallets);
+        return csv.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String buildHeader(User user, List<Wallet> userWallets) {
         StringBuilder csv = new StringBuilder();
 
         csv.append("Account Holder,").append(escapeCsvField(user != null ? user.getName() : "")).append("\n");
@@ -27,15 +32,21 @@ public class StatementCsvBuilder {
 
         // CSV Header - matching table structure provided
         csv.append("Transaction ID,Date,Amount,Status,Remarks,Sender Wallet ID,Receiver Wallet ID\n");
+        return csv.toString();
+    }
 
-        if (transactions.isEmpty()) {
-            csv.append("\nFinal Balance,").append(formatAmount(calculateTotalBalance(userWallets))).append("\n");
-            return csv.toString().getBytes(StandardCharsets.UTF_8);
+    // Rows newest first, so a block of newer rows can be placed in front of older ones
+    public String buildRows(List<Transaction> transactions) {
+        if (transactions == null || transactions.isEmpty()) {
+            return "";
         }
 
+        StringBuilder csv = new StringBuilder();
+
         // Sort transactions by date descending
         List<Transaction> sortedTransactions = new ArrayList<>(transactions);
-        sortedTransactions.sort(Comparator.comparing(Transaction::getTransactionDate));
+        sortedTransactions.sort(Comparator.comparing(Transaction::getTransactionDate,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
         for (int i = sortedTransactions.size() - 1; i >= 0; i--) {
             Transaction transaction = sortedTransactions.get(i);
             String statusValue = normalizeStatus(transaction.getStatus());
@@ -51,9 +62,11 @@ public class StatementCsvBuilder {
                     .append(safeWalletReference(transaction != null ? transaction.getReceiverWallet() : null))
                     .append("\n");
         }
+        return csv.toString();
+    }
 
-        csv.append("\nFinal Balance,").append(formatAmount(calculateTotalBalance(userWallets))).append("\n");
-        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    public String buildFooter(List<Wallet> userWallets) {
+        return "\nFinal Balance," + formatAmount(calculateTotalBalance(userWallets)) + "\n";
     }
 
     private String formatDate(java.time.LocalDateTime dateTime) {
@@ -0,0 +1,156 @@
+package com.example.E_Wallet.Service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides whether a credit, withdrawal or transfer may settle without an OTP.
+ *
+ * A successful OTP verification issues a short-lived step-up token. It is
+ * signed with its own key, so it can never pass as a login JWT. While the
+ * token is valid, operations at or below the per-operation amount settle
+ * immediately, up to a count and total amount per token. Anything over those
+ * limits, or with a missing, expired or foreign token, falls back to the OTP
+ * flow.
+ *
+ * The signing key comes from stepup.signing-key, so tokens survive a restart
+ * and are accepted by every instance sharing the key. The per-token count and
+ * amount are kept in memory and are per instance: behind a load balancer each
+ * instance allows the full limits for the same token. Usage entries are
+ * dropped once their token has expired.
+ */
+@Component
+public class StepUpPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(StepUpPolicy.class);
+
+    private static final String TOKEN_TYPE = "step_up";
+
+    private SecretKey signingKey;
+    private final Map<String, Usage> usageByTokenId = new ConcurrentHashMap<>();
+
+    // Base64, at least 32 bytes
+    @Value("${stepup.signing-key:}")
+    private String configuredSigningKey;
+
+    @Value("${stepup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${stepup.token-ttl-minutes:10}")
+    private long tokenTtlMinutes;
+
+    @Value("${stepup.max-amount-per-operation:1000}")
+    private double maxAmountPerOperation;
+
+    @Value("${stepup.max-operations-per-token:5}")
+    private int maxOperationsPerToken;
+
+    @Value("${stepup.max-total-amount-per-token:3000}")
+    private double maxTotalAmountPerToken;
+
+    @PostConstruct
+    public void initializeSigningKey() {
+        if (configuredSigningKey == null || configuredSigningKey.isBlank()) {
+            byte[] keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+            log.warn("event=stepup_key_generated detail=\"stepup.signing-key not set, step-up tokens are valid on this instance until it restarts\"");
+            return;
+        }
+
+        byte[] keyBytes = Base64.getDecoder().decode(configuredSigningKey.trim());
+        if (keyBytes.length < 32) {
+            throw new IllegalStateException("stepup.signing-key must be at least 32 bytes");
+        }
+        this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+    }
+
+    // Returns null when the policy is disabled
+    public String issueToken(UUID userId) {
+        if (!enabled || userId == null) {
+            return null;
+        }
+
+        Date now = new Date();
+        return Jwts.builder()
+                .subject(userId.toString())
+                .id(UUID.randomUUID().toString())
+                .claim("typ", TOKEN_TYPE)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + tokenTtlMinutes * 60 * 1000))
+                .signWith(signingKey)
+                .compact();
+    }
+
+    /**
+     * Returns true and counts the operation against the token if it may skip
+     * the OTP. Never throws; any problem with the token means "ask for an OTP".
+     */
+    public boolean tryBypass(String token, UUID userId, Double amount) {
+        if (!enabled || token == null || token.isBlank() || userId == null
+                || amount == null || amount <= 0 || amount > maxAmountPerOperation) {
+            return false;
+        }
+
+        Claims claims;
+        try {
+            claims = Jwts.parser()
+                    .verifyWith(signingKey)
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+        } catch (Exception e) {
+            return false;
+        }
+
+        if (!TOKEN_TYPE.equals(claims.get("typ", String.class))
+                || !userId.toString().equals(claims.getSubject())
+                || claims.getId() == null) {
+            return false;
+        }
+
+        long expiresAt = claims.getExpiration().getTime();
+        boolean[] allowed = new boolean[1];
+        usageByTokenId.compute(claims.getId(), (id, usage) -> {
+            Usage current = usage != null ? usage : new Usage(expiresAt);
+            if (current.count < maxOperationsPerToken && current.total + amount <= maxTotalAmountPerToken) {
+                current.count++;
+                current.total += amount;
+                allowed[0] = true;
+            }
+            return current;
+        });
+        return allowed[0];
+    }
+
+    @Scheduled(fixedRateString = "${stepup.usage-purge-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        usageByTokenId.values().removeIf(usage -> usage.expiresAt < now);
+    }
+
+    private static final class Usage {
+        final long expiresAt;
+        int count;
+        double total;
+
+        Usage(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.E_Wallet.Service;
+
+import com.example.E_Wallet.DTO.JobRunDTO;
+import com.example.E_Wallet.Exceptions.ValidationException;
+import com.example.E_Wallet.Model.Transaction;
+import com.example.E_Wallet.Model.Wallet;
+import com.example.E_Wallet.Repository.TransactionRepo;
+import com.example.E_Wallet.Repository.WalletRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves whole months of transactions older than archive.retention-days out of
+ * the transactions table into TransactionArchiveStore segments.
+ *
+ * A month is first written to its segment file. Its rows are then deleted in
+ * chunks. Each chunk's successful flows are added to the wallets'
+ * opening_balance in the same transaction as the delete, so ledger
+ * reconciliation still balances without the rows. The segment is marked
+ * settled once every chunk has committed; until then the store leaves out
+ * archived rows that are still in the table. If a run stops after the
+ * segment is written, the next run finds the unsettled segment and finishes
+ * the deletes.
+ */
+@Service
+public class TransactionArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionArchiveService.class);
+
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private TransactionRepo transactionRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private TransactionArchiveStore transactionArchiveStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PartitionedJobRunner partitionedJobRunner;
+
+    @Value("${archive.retention-days:365}")
+    private int retentionDays;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Scheduled(cron = "${archive.cron:0 30 1 1 * *}")
+    public void archiveOnSchedule() {
+        try {
+            archiveOldTransactions();
+        } catch (Exception e) {
+            log.error("event=archive_job_failed error={}", e.getMessage(), e);
+        }
+    }
+
+    public JobRunDTO archiveOldTransactions() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ValidationException("Transaction archive job is already running");
+        }
+        try {
+            long startNanos = System.nanoTime();
+            // Only whole months that are entirely older than the retention window
+            YearMonth firstKept = YearMonth.from(LocalDateTime.now().minusDays(retentionDays));
+
+            LocalDateTime oldest = transactionRepo.findOldestTransactionDate();
+            long archived = 0;
+            if (oldest != null) {
+                for (YearMonth month = YearMonth.from(oldest); month.isBefore(firstKept); month = month.plusMonths(1)) {
+                    archived += archiveMonth(month);
+                }
+            }
+            return partitionedJobRunner.summarize("transaction-archive", archived, archived, startNanos);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long archiveMonth(YearMonth month) {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+
+        if (transactionArchiveStore.isSettled(month)) {
+            return 0;
+        }
+        if (!transactionArchiveStore.exists(month)) {
+            List<Transaction> rows = new ArrayList<>();
+            for (Object[] row : transactionRepo.findArchiveRowsBetween(from, to)) {
+                rows.add(toTransaction(row));
+            }
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            transactionArchiveStore.write(month, rows);
+        }
+
+        List<UUID> ids = new ArrayList<>(transactionArchiveStore.readIds(month));
+        long deleted = 0;
+        for (int i = 0; i < ids.size(); i += DELETE_CHUNK_SIZE) {
+            deleted += deleteChunk(ids.subList(i, Math.min(i + DELETE_CHUNK_SIZE, ids.size())));
+        }
+        transactionArchiveStore.markSettled(month);
+        return deleted;
+    }
+
+    private long deleteChunk(List<UUID> ids) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> {
+            // Rows already deleted by an earlier, interrupted run are simply not found here
+            List<Object[]> rows = transactionRepo.findArchiveRowsByIds(ids);
+            if (rows.isEmpty()) {
+                return 0L;
+            }
+
+            Map<UUID, Double> flows = new HashMap<>();
+            Set<UUID> walletIds = new HashSet<>();
+            for (Object[] row : rows) {
+                walletIds.add((UUID) row[1]);
+                walletIds.add((UUID) row[2]);
+            }
+            for (Object[] row : rows) {
+                WalletFlowCalculator.addNetFlow(flows, (UUID) row[1], (UUID) row[2],
+                        ((Number) row[3]).doubleValue(), (String) row[5], (String) row[6], walletIds);
+            }
+
+            for (Map.Entry<UUID, Double> flow : flows.entrySet()) {
+                walletRepo.addToOpeningBalance(flow.getKey(), flow.getValue());
+            }
+            return (long) transactionRepo.deleteByIds(ids);
+        });
+    }
+
+    private Transaction toTransaction(Object[] row) {
+        Transaction transaction = new Transaction();
+        transaction.setId((UUID) row[0]);
+        transaction.setSenderWallet(walletRef((UUID) row[1]));
+        transaction.setReceiverWallet(walletRef((UUID) row[2]));
+        transaction.setAmount(((Number) row[3]).doubleValue());
+        transaction.setTransactionDate((LocalDateTime) row[4]);
+        transaction.setStatus((String) row[5]);
+        transaction.setRemarks((String) row[6]);
+        return transaction;
+    }
+
+    private Wallet walletRef(UUID walletId) {
+        Wallet wallet = new Wallet();
+        wallet.setId(walletId);
+        return wallet;
+    }
+}
@@ -0,0 +1,549 @@
+package com.example.E_Wallet.Service;
+
+import com.example.E_Wallet.Model.Transaction;
+import com.example.E_Wallet.Model.Wallet;
+import com.example.E_Wallet.Repository.TransactionRepo;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable, compressed monthly segment files holding archived transactions.
+ *
+ * File layout (transactions-YYYY-MM.seg):
+ *   header   magic, version, entry count, record count       (4 ints)
+ *   index    per wallet, sorted by wallet id:
+ *            wallet id (2 longs), block offset (long), block length, record count (2 ints)
+ *   blocks   one deflate-compressed block per wallet, records sorted by date
+ *
+ * A transfer is stored under both the sender and the receiver, so a wallet's
+ * history is a binary search in the index plus one block inflate. Segments are
+ * memory-mapped read-only, and mappings are kept for the life of the process.
+ * A segment must stay under 2 GB.
+ *
+ * A segment is unsettled from the moment it is written until
+ * TransactionArchiveService has committed every delete of its rows; a
+ * .pending marker next to the file records this across restarts. Rows of an
+ * unsettled segment that are still in the transactions table are left out of
+ * read(), so callers that add table and archive rows count each row once.
+ */
+@Component
+public class TransactionArchiveStore {
+
+    private static final int MAGIC = 0x54585347; // "TXSG"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_BYTES = 32;
+    private static final String PREFIX = "transactions-";
+    private static final String SUFFIX = ".seg";
+    private static final String PENDING_SUFFIX = ".pending";
+    private static final int ID_CHECK_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private TransactionRepo transactionRepo;
+
+    @Value("${archive.dir:./archive/transactions}")
+    private String archiveDir;
+
+    @Value("${archive.count-cache.max-entries:10000}")
+    private int countCacheMaxEntries;
+
+    private final NavigableSet<YearMonth> months = new ConcurrentSkipListSet<>();
+    private final Set<YearMonth> unsettled = ConcurrentHashMap.newKeySet();
+    private final Map<YearMonth, MappedByteBuffer> mapped = new ConcurrentHashMap<>();
+    // Row counts of settled months, which never change; least recently used first
+    private final LinkedHashMap<CountKey, Long> settledCounts = new LinkedHashMap<>(16, 0.75f, true);
+
+    @PostConstruct
+    public void loadSegments() {
+        Path dir = Paths.get(archiveDir);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                YearMonth month = YearMonth.parse(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+                if (Files.exists(pendingMarker(month))) {
+                    unsettled.add(month);
+                }
+                months.add(month);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list archive segments in " + dir, e);
+        }
+    }
+
+    public boolean exists(YearMonth month) {
+        return months.contains(month);
+    }
+
+    public boolean isEmpty() {
+        return months.isEmpty();
+    }
+
+    public boolean isSettled(YearMonth month) {
+        return months.contains(month) && !unsettled.contains(month);
+    }
+
+    /**
+     * Taken by a reader before its first table read. A month written or
+     * settled after that may still have rows in the reader's view of the
+     * table, so read() checks every month not in this set.
+     */
+    public Set<YearMonth> settledMonths() {
+        Set<YearMonth> settled = new HashSet<>();
+        for (YearMonth month : months) {
+            // write() marks a month unsettled before adding it to months
+            if (!unsettled.contains(month)) {
+                settled.add(month);
+            }
+        }
+        return settled;
+    }
+
+    // Called once every row of the segment has been deleted from the transactions table
+    public void markSettled(YearMonth month) {
+        try {
+            Files.deleteIfExists(pendingMarker(month));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not settle archive segment for " + month, e);
+        }
+        unsettled.remove(month);
+    }
+
+    // Everything before this instant may be archived; null while there are no segments
+    public LocalDateTime horizon() {
+        return months.isEmpty() ? null : months.last().plusMonths(1).atDay(1).atStartOfDay();
+    }
+
+    // Written to a temp file and atomically renamed, so a segment is either complete or absent.
+    // The segment starts out unsettled.
+    public void write(YearMonth month, List<Transaction> transactions) {
+        Map<UUID, List<Transaction>> byWallet = new TreeMap<>();
+        for (Transaction transaction : transactions) {
+            UUID sender = transaction.getSenderWallet().getId();
+            UUID receiver = transaction.getReceiverWallet().getId();
+            byWallet.computeIfAbsent(sender, id -> new ArrayList<>()).add(transaction);
+            if (!receiver.equals(sender)) {
+                byWallet.computeIfAbsent(receiver, id -> new ArrayList<>()).add(transaction);
+            }
+        }
+
+        List<byte[]> blocks = new ArrayList<>();
+        for (List<Transaction> walletRows : byWallet.values()) {
+            walletRows.sort(Comparator.comparing(Transaction::getTransactionDate));
+            blocks.add(deflate(encode(walletRows)));
+        }
+
+        int entryCount = byWallet.size();
+        ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES + entryCount * ENTRY_BYTES);
+        head.putInt(MAGIC).putInt(VERSION).putInt(entryCount).putInt(transactions.size());
+        long offset = head.capacity();
+        int i = 0;
+        for (Map.Entry<UUID, List<Transaction>> entry : byWallet.entrySet()) {
+            byte[] block = blocks.get(i++);
+            head.putLong(entry.getKey().getMostSignificantBits())
+                    .putLong(entry.getKey().getLeastSignificantBits())
+                    .putLong(offset)
+                    .putInt(block.length)
+                    .putInt(entry.getValue().size());
+            offset += block.length;
+        }
+        head.flip();
+
+        Path dir = Paths.get(archiveDir);
+        Path target = dir.resolve(PREFIX + month + SUFFIX);
+        Path temp = dir.resolve(PREFIX + month + SUFFIX + ".tmp");
+        try {
+            Files.createDirectories(dir);
+            Files.write(pendingMarker(month), new byte[0]);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (head.hasRemaining()) {
+                    channel.write(head);
+                }
+                for (byte[] block : blocks) {
+                    ByteBuffer buffer = ByteBuffer.wrap(block);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive segment " + target, e);
+        }
+        unsettled.add(month);
+        months.add(month);
+    }
+
+    public Set<UUID> readIds(YearMonth month) {
+        Set<UUID> ids = new HashSet<>();
+        for (Transaction transaction : readMonth(month, null)) {
+            ids.add(transaction.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Archived transactions touching any of the wallets (all wallets when
+     * walletIds is null) with a date in [from, to), newest first. Null bounds
+     * are open.
+     *
+     * Rows of months outside settledMonths are dropped while they are still
+     * in the transactions table. Call this in the same transaction as the
+     * table read it is combined with: under REPEATABLE READ both then see the
+     * same set of deleted rows.
+     */
+    public List<Transaction> read(Collection<UUID> walletIds, LocalDateTime from, LocalDateTime to,
+                                  Predicate<Transaction> filter, Set<YearMonth> settledMonths) {
+        Map<UUID, Transaction> found = new LinkedHashMap<>();
+        if (months.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        YearMonth first = from != null ? YearMonth.from(from) : months.first();
+        YearMonth last = to != null ? YearMonth.from(to) : months.last();
+        List<UUID> unsettledIds = new ArrayList<>();
+        for (YearMonth month : months.subSet(first, true, last, true)) {
+            boolean checkTable = !settledMonths.contains(month);
+            for (Transaction transaction : readMonth(month, walletIds)) {
+                LocalDateTime date = transaction.getTransactionDate();
+                if ((from != null && date.isBefore(from)) || (to != null && !date.isBefore(to))) {
+                    continue;
+                }
+                if ((filter == null || filter.test(transaction))
+                        && found.putIfAbsent(transaction.getId(), transaction) == null && checkTable) {
+                    unsettledIds.add(transaction.getId());
+                }
+            }
+        }
+
+        dropStillInTable(found, unsettledIds);
+
+        List<Transaction> result = new ArrayList<>(found.values());
+        result.sort(Comparator.comparing(Transaction::getTransactionDate).reversed());
+        return result;
+    }
+
+    /**
+     * Number of rows read(walletIds, null, null, filter, settledMonths) would
+     * return. A settled month is counted from the segment index when that is
+     * exact (no filter, all wallets or one wallet); otherwise it is counted
+     * once per wallet set and filter and remembered, so filter should be a
+     * constant rather than a new lambda per call.
+     */
+    public long count(Collection<UUID> walletIds, Predicate<Transaction> filter, Set<YearMonth> settledMonths) {
+        long count = 0;
+        for (YearMonth month : months) {
+            count += countMonth(month, walletIds, filter, settledMonths);
+        }
+        return count;
+    }
+
+    /**
+     * Rows [offset, offset + limit) of what read(walletIds, null, null, filter,
+     * settledMonths) returns, or of its reverse when newestFirst is false.
+     * Months before the slice are skipped by their count, so only the months
+     * the slice falls in are sorted and copied.
+     */
+    public List<Transaction> readSlice(Collection<UUID> walletIds, Predicate<Transaction> filter,
+                                       Set<YearMonth> settledMonths, boolean newestFirst, long offset, int limit) {
+        List<Transaction> slice = new ArrayList<>();
+        Comparator<Transaction> byDate = Comparator.comparing(Transaction::getTransactionDate);
+        long skip = offset;
+        for (YearMonth month : newestFirst ? months.descendingSet() : months) {
+            if (slice.size() >= limit) {
+                break;
+            }
+            if (skip > 0) {
+                long monthCount = countMonth(month, walletIds, filter, settledMonths);
+                if (skip >= monthCount) {
+                    skip -= monthCount;
+                    continue;
+                }
+            }
+            List<Transaction> rows = readMonth(month, walletIds, filter, settledMonths);
+            rows.sort(newestFirst ? byDate.reversed() : byDate);
+            for (int i = (int) skip; i < rows.size() && slice.size() < limit; i++) {
+                slice.add(rows.get(i));
+            }
+            skip = 0;
+        }
+        return slice;
+    }
+
+    private long countMonth(YearMonth month, Collection<UUID> walletIds, Predicate<Transaction> filter,
+                            Set<YearMonth> settledMonths) {
+        if (settledMonths.contains(month) && filter == null) {
+            // Header and index counts, no inflate; a single wallet's block holds each of its rows once
+            if (walletIds == null) {
+                return map(month).getInt(12);
+            }
+            if (walletIds.size() == 1) {
+                ByteBuffer segment = map(month);
+                int index = findEntry(segment, segment.getInt(8), walletIds.iterator().next());
+                return index >= 0 ? segment.getInt(HEADER_BYTES + index * ENTRY_BYTES + 28) : 0;
+            }
+        }
+        if (!settledMonths.contains(month)) {
+            return readMonth(month, walletIds, filter, settledMonths).size();
+        }
+
+        CountKey key = new CountKey(month, walletIds != null ? new TreeSet<>(walletIds) : null, filter);
+        synchronized (settledCounts) {
+            Long cached = settledCounts.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // Two readers may both count a month the first time; they get the same number
+        long count = readMonth(month, walletIds, filter, settledMonths).size();
+        synchronized (settledCounts) {
+            settledCounts.put(key, count);
+            Iterator<CountKey> eldest = settledCounts.keySet().iterator();
+            while (settledCounts.size() > countCacheMaxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return count;
+    }
+
+    private record CountKey(YearMonth month, Set<UUID> walletIds, Predicate<Transaction> filter) {
+    }
+
+    // One month of read(), unsorted
+    private List<Transaction> readMonth(YearMonth month, Collection<UUID> walletIds, Predicate<Transaction> filter,
+                                        Set<YearMonth> settledMonths) {
+        Map<UUID, Transaction> found = new LinkedHashMap<>();
+        for (Transaction transaction : readMonth(month, walletIds)) {
+            if (filter == null || filter.test(transaction)) {
+                found.putIfAbsent(transaction.getId(), transaction);
+            }
+        }
+        if (!settledMonths.contains(month)) {
+            dropStillInTable(found, new ArrayList<>(found.keySet()));
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    private void dropStillInTable(Map<UUID, Transaction> found, List<UUID> candidates) {
+        for (int i = 0; i < candidates.size(); i += ID_CHECK_CHUNK_SIZE) {
+            List<UUID> chunk = candidates.subList(i, Math.min(i + ID_CHECK_CHUNK_SIZE, candidates.size()));
+            for (UUID stillInTable : transactionRepo.findExistingIds(chunk)) {
+                found.remove(stillInTable);
+            }
+        }
+    }
+
+    private List<Transaction> readMonth(YearMonth month, Collection<UUID> walletIds) {
+        ByteBuffer segment = map(month);
+        if (segment.getInt(0) != MAGIC || segment.getInt(4) != VERSION) {
+            throw new IllegalStateException("Unrecognised archive segment for " + month);
+        }
+        int entryCount = segment.getInt(8);
+
+        List<Transaction> rows = new ArrayList<>();
+        if (walletIds == null) {
+            // Every transaction appears under its sender's entry
+            for (int i = 0; i < entryCount; i++) {
+                for (Transaction transaction : decodeEntry(segment, i)) {
+                    if (entryWalletId(segment, i).equals(transaction.getSenderWallet().getId())) {
+                        rows.add(transaction);
+                    }
+                }
+            }
+            return rows;
+        }
+
+        for (UUID walletId : new TreeSet<>(walletIds)) {
+            int index = findEntry(segment, entryCount, walletId);
+            if (index >= 0) {
+                rows.addAll(decodeEntry(segment, index));
+            }
+        }
+        return rows;
+    }
+
+    private int findEntry(ByteBuffer segment, int entryCount, UUID walletId) {
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = entryWalletId(segment, mid).compareTo(walletId);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private UUID entryWalletId(ByteBuffer segment, int index) {
+        int position = HEADER_BYTES + index * ENTRY_BYTES;
+        return new UUID(segment.getLong(position), segment.getLong(position + 8));
+    }
+
+    private List<Transaction> decodeEntry(ByteBuffer segment, int index) {
+        int position = HEADER_BYTES + index * ENTRY_BYTES;
+        int offset = (int) segment.getLong(position + 16);
+        int length = segment.getInt(position + 24);
+        int count = segment.getInt(position + 28);
+        return decode(inflate(segment.slice(offset, length)), count);
+    }
+
+    private Path pendingMarker(YearMonth month) {
+        return Paths.get(archiveDir).resolve(PREFIX + month + SUFFIX + PENDING_SUFFIX);
+    }
+
+    private MappedByteBuffer map(YearMonth month) {
+        return mapped.computeIfAbsent(month, m -> {
+            Path file = Paths.get(archiveDir).resolve(PREFIX + m + SUFFIX);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not map archive segment " + file, e);
+            }
+        });
+    }
+
+    private byte[] encode(List<Transaction> transactions) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (Transaction transaction : transactions) {
+                writeUuid(out, transaction.getId());
+                writeUuid(out, transaction.getSenderWallet().getId());
+                writeUuid(out, transaction.getReceiverWallet().getId());
+                out.writeDouble(transaction.getAmount());
+                out.writeLong(transaction.getTransactionDate().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(transaction.getTransactionDate().getNano());
+                out.writeUTF(transaction.getStatus() != null ? transaction.getStatus() : "");
+                out.writeBoolean(transaction.getRemarks() != null);
+                if (transaction.getRemarks() != null) {
+                    out.writeUTF(transaction.getRemarks());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<Transaction> decode(byte[] data, int count) {
+        List<Transaction> transactions = new ArrayList<>(count);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            for (int i = 0; i < count; i++) {
+                Transaction transaction = new Transaction();
+                transaction.setId(readUuid(in));
+                transaction.setSenderWallet(walletRef(readUuid(in)));
+                transaction.setReceiverWallet(walletRef(readUuid(in)));
+                transaction.setAmount(in.readDouble());
+                transaction.setTransactionDate(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+                transaction.setStatus(in.readUTF());
+                transaction.setRemarks(in.readBoolean() ? in.readUTF() : null);
+                transactions.add(transaction);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return transactions;
+    }
+
+    // Archived rows are detached; their wallets carry only the id
+    private Wallet walletRef(UUID walletId) {
+        Wallet wallet = new Wallet();
+        wallet.setId(walletId);
+        return wallet;
+    }
+
+    private void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(ByteBuffer block) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(block);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(block.remaining() * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated archive block");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt archive block", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
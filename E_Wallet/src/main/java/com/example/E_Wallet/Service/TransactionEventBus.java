@@ -0,0 +1,209 @@
+package com.example.E_Wallet.Service;
+
+import com.example.E_Wallet.DTO.TransactionDTO;
+import com.example.E_Wallet.Model.Transaction;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process pub/sub behind GET /transactions/stream.
+ *
+ * Each SSE connection is an async servlet request, so an idle subscriber holds
+ * no thread, only an emitter and a small buffer. Published events go into the
+ * subscriber's bounded buffer, and the oldest event is dropped once the buffer
+ * is full. A virtual thread drains the buffer, so a slow client never blocks
+ * the thread that committed the transaction.
+ */
+@Component
+public class TransactionEventBus {
+
+    @Value("${transactions.stream.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${transactions.stream.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${transactions.stream.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    private final Map<UUID, List<Subscriber>> subscribersByUser = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SseEmitter subscribe(UUID userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+
+        List<Subscriber> subscribers = subscribersByUser.compute(userId, (id, existing) -> {
+            List<Subscriber> list = existing != null ? existing : new CopyOnWriteArrayList<>();
+            list.add(subscriber);
+            return list;
+        });
+        // Oldest connections are closed first once a user opens too many
+        while (subscribers.size() > maxConnectionsPerUser) {
+            Subscriber oldest = subscribers.get(0);
+            oldest.close();
+            subscribers.remove(oldest);
+        }
+
+        emitter.onCompletion(subscriber::remove);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        subscriber.offer(SseEmitter.event().comment("connected"));
+        return emitter;
+    }
+
+    /**
+     * Publishes the transaction's current status to the owners of both wallets
+     * once the surrounding transaction commits, or right away if there is none.
+     */
+    public void publishAfterCommit(Transaction transaction) {
+        TransactionDTO event = toEvent(transaction);
+        Set<UUID> userIds = new LinkedHashSet<>();
+        userIds.add(transaction.getSenderWallet().getUser().getId());
+        userIds.add(transaction.getReceiverWallet().getUser().getId());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(userIds, event);
+                }
+            });
+        } else {
+            publish(userIds, event);
+        }
+    }
+
+    private void publish(Set<UUID> userIds, TransactionDTO event) {
+        for (UUID userId : userIds) {
+            List<Subscriber> subscribers = subscribersByUser.get(userId);
+            if (subscribers == null) {
+                continue;
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(SseEmitter.event()
+                        .name("transaction")
+                        .id(event.getId().toString())
+                        .data(event));
+            }
+        }
+    }
+
+    // Keeps proxies from closing idle streams and surfaces dead connections
+    @Scheduled(fixedRate = 25000)
+    public void sendHeartbeats() {
+        for (List<Subscriber> subscribers : subscribersByUser.values()) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(SseEmitter.event().comment("keepalive"));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (List<Subscriber> subscribers : subscribersByUser.values()) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.close();
+            }
+        }
+        sender.shutdownNow();
+    }
+
+    private TransactionDTO toEvent(Transaction transaction) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(transaction.getId());
+        dto.setSenderWalletId(transaction.getSenderWallet().getId());
+        dto.setReceiverWalletId(transaction.getReceiverWallet().getId());
+        dto.setAmount(transaction.getAmount());
+        dto.setTransactionDate(transaction.getTransactionDate());
+        dto.setStatus(transaction.getStatus());
+        dto.setRemarks(transaction.getRemarks());
+        return dto;
+    }
+
+    private final class Subscriber {
+        private final UUID userId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<SseEmitter.SseEventBuilder> buffer = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(UUID userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                }
+                buffer.addLast(event);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            sender.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    event = buffer.pollFirst();
+                    if (event == null || closed) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    close();
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                buffer.clear();
+            }
+            remove();
+            emitter.complete();
+        }
+
+        void remove() {
+            subscribersByUser.computeIfPresent(userId, (id, subscribers) -> {
+                subscribers.remove(this);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+    }
+}
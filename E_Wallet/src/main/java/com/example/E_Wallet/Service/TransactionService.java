@@ -4,18 +4,36 @@ import com.example.E_Wallet.DTO.PaginatedResponse;
 import com.example.E_Wallet.DTO.TransactionDTO;
 import com.example.E_Wallet.Model.Transaction;
 import com.example.E_Wallet.Model.User;
+import com.example.E_Wallet.Model.Wallet;
 import com.example.E_Wallet.Repository.TransactionRepo;
 import com.example.E_Wallet.Repository.WalletRepo;
 import com.example.E_Wallet.Security.SecurityUtil;
 import com.example.E_Wallet.Exceptions.ValidationException;
+import com.example.E_Wallet.Exceptions.ErrorCode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,50 +55,213 @@ public class TransactionService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private StatementCache statementCache;
+
+    @Autowired
+    private TransactionArchiveStore transactionArchiveStore;
+
+    @Value("${statement.cache.settle-minutes:15}")
+    private long statementSettleMinutes;
+
     
     private static final int DEFAULT_PAGE_SIZE = 20;
     private static final int MAX_PAGE_SIZE = 100; // Maximum allowed page size to prevent abuse
 
+    // Constants, so TransactionArchiveStore can keep all-wallet counts per filter
+    private static final Predicate<Transaction> ARCHIVED_CREDITS = t -> "Credit transaction".equals(t.getRemarks());
+    private static final Predicate<Transaction> ARCHIVED_WITHDRAWALS = t -> "Withdrawal transaction".equals(t.getRemarks());
+    private static final Predicate<Transaction> ARCHIVED_TRANSFERS = t -> "Fund transfer".equals(t.getRemarks());
+    private static final Predicate<Transaction> ARCHIVED_FAILED = t -> "failed".equalsIgnoreCase(t.getStatus());
+
     
     public PaginatedResponse<TransactionDTO> getTransactions(String type, Pageable pageable) {
+        // Before the first query, so the archive check and the table reads agree on what is deleted
+        Set<YearMonth> settledMonths = transactionArchiveStore.settledMonths();
         Pageable validatedPageable = validateAndAdjustPageable(pageable);
 
         String normalizedType = (type == null || type.trim().isEmpty()) 
             ? "all" 
             : type.trim().toLowerCase();
         
-        Page<Transaction> transactionPage;
+        Function<Pageable, Page<Transaction>> tableQuery;
         switch (normalizedType) {
             case "credits":
-                transactionPage = filterTransactionsByRemark("Credit transaction", validatedPageable);
+                tableQuery = p -> filterTransactionsByRemark("Credit transaction", p);
                 break;
                 
             case "withdrawals":
-                transactionPage = filterTransactionsByRemark("Withdrawal transaction", validatedPageable);
+                tableQuery = p -> filterTransactionsByRemark("Withdrawal transaction", p);
                 break;
                 
             case "transfers":
-                transactionPage = filterTransactionsByRemark("Fund transfer", validatedPageable);
+                tableQuery = p -> filterTransactionsByRemark("Fund transfer", p);
                 break;
                 
             case "failed":
-                transactionPage = filterFailedTransactions(validatedPageable);
+                tableQuery = this::filterFailedTransactions;
                 break;
                 
             case "all":
             default:
-                transactionPage = fetchTransactionsForCurrentUser(validatedPageable);
+                tableQuery = this::fetchTransactionsForCurrentUser;
                 break;
         }
         
+        Page<Transaction> transactionPage = withArchivedRows(tableQuery, validatedPageable, normalizedType, settledMonths);
         return convertToPaginatedResponse(transactionPage);
     }
 
+    /**
+     * Pages over the table rows and the archived rows as one list.
+     *
+     * Archived rows are older than the rows left in the table, so in date order
+     * the archive is one block after (newest first) or before (oldest first)
+     * the table, and a page reads only the slice of the archive it covers.
+     * Newest first, a page inside the table touches no archive block; the
+     * archive is only counted for the total, and settled months' counts are
+     * remembered by the store. Any other order is a merge of the first
+     * offset + size rows of both sides, which reads the whole archive for the
+     * user (for admins, every wallet).
+     */
+    private Page<Transaction> withArchivedRows(Function<Pageable, Page<Transaction>> tableQuery, Pageable pageable,
+                                               String type, Set<YearMonth> settledMonths) {
+        Page<Transaction> tablePage = tableQuery.apply(pageable);
+        if (transactionArchiveStore.isEmpty()) {
+            return tablePage;
+        }
+
+        List<UUID> walletIds = null;
+        if (!securityUtil.isAdmin()) {
+            walletIds = walletRepo.findByUserId(securityUtil.getCurrentUserId()).stream()
+                    .map(Wallet::getId)
+                    .collect(Collectors.toList());
+        }
+
+        Predicate<Transaction> filter = archiveFilter(type);
+        long tableTotal = tablePage.getTotalElements();
+        long offset = pageable.getOffset();
+        int size = pageable.getPageSize();
+        Sort.Order first = pageable.getSort().stream().findFirst().orElse(null);
+
+        if (first == null || ("transactionDate".equals(first.getProperty()) && first.isDescending())) {
+            List<Transaction> content = new ArrayList<>(tablePage.getContent());
+            if (content.size() < size) {
+                content.addAll(transactionArchiveStore.readSlice(walletIds, filter, settledMonths, true,
+                        Math.max(0, offset - tableTotal), size - content.size()));
+            }
+            // The total is only counted when the page does not already imply it (a full page)
+            List<UUID> archiveWallets = walletIds;
+            return PageableExecutionUtils.getPage(content, pageable,
+                    () -> tableTotal + transactionArchiveStore.count(archiveWallets, filter, settledMonths));
+        }
+
+        long archivedTotal = transactionArchiveStore.count(walletIds, filter, settledMonths);
+        if (archivedTotal == 0) {
+            return tablePage;
+        }
+
+        List<Transaction> content;
+        if ("transactionDate".equals(first.getProperty())) {
+            content = new ArrayList<>();
+            if (offset < archivedTotal) {
+                content.addAll(transactionArchiveStore.readSlice(walletIds, filter, settledMonths, false,
+                        offset, size));
+            }
+            if (content.size() < size) {
+                content.addAll(tableSlice(tableQuery, pageable.getSort(),
+                        Math.max(0, offset - archivedTotal), size - content.size()));
+            }
+        } else {
+            List<Transaction> archived = transactionArchiveStore.read(walletIds, null, null, filter, settledMonths);
+            content = mergePage(tableQuery, pageable, archived);
+        }
+        return new PageImpl<>(content, pageable, tableTotal + archivedTotal);
+    }
+
+    // Rows [offset, offset + limit) of a table query, from at most two pages of size limit
+    private List<Transaction> tableSlice(Function<Pageable, Page<Transaction>> tableQuery, Sort sort,
+                                         long offset, int limit) {
+        int page = (int) (offset / limit);
+        int skip = (int) (offset % limit);
+        List<Transaction> rows = new ArrayList<>(tableQuery.apply(PageRequest.of(page, limit, sort)).getContent());
+        if (skip > 0 && rows.size() == limit) {
+            rows.addAll(tableQuery.apply(PageRequest.of(page + 1, limit, sort)).getContent());
+        }
+        return rows.subList(Math.min(skip, rows.size()), Math.min(skip + limit, rows.size()));
+    }
+
+    private List<Transaction> mergePage(Function<Pageable, Page<Transaction>> tableQuery, Pageable pageable,
+                                        List<Transaction> archived) {
+        int end = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+        Comparator<Transaction> order = comparatorFor(pageable.getSort());
+        List<Transaction> table = tableQuery.apply(PageRequest.of(0, end, pageable.getSort())).getContent();
+        archived.sort(order);
+
+        List<Transaction> merged = new ArrayList<>(end);
+        int t = 0;
+        int a = 0;
+        while (merged.size() < end && (t < table.size() || a < archived.size())) {
+            if (a >= archived.size() || (t < table.size() && order.compare(table.get(t), archived.get(a)) <= 0)) {
+                merged.add(table.get(t++));
+            } else {
+                merged.add(archived.get(a++));
+            }
+        }
+        return merged.subList((int) Math.min(pageable.getOffset(), merged.size()), merged.size());
+    }
+
+    // In-memory form of the Sort the table query was given, for the properties archived rows carry
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Transaction> comparatorFor(Sort sort) {
+        Comparator<Transaction> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Function<Transaction, Comparable> key;
+            switch (order.getProperty()) {
+                case "amount":
+                    key = Transaction::getAmount;
+                    break;
+                case "transactionDate":
+                    key = Transaction::getTransactionDate;
+                    break;
+                case "status":
+                    key = Transaction::getStatus;
+                    break;
+                case "remarks":
+                    key = Transaction::getRemarks;
+                    break;
+                case "id":
+                    key = Transaction::getId;
+                    break;
+                default:
+                    continue;
+            }
+            Comparator<Transaction> byKey = Comparator.comparing(key, Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isDescending() ? byKey.reversed() : byKey);
+        }
+        return comparator;
+    }
+
+    private Predicate<Transaction> archiveFilter(String type) {
+        switch (type) {
+            case "credits":
+                return ARCHIVED_CREDITS;
+            case "withdrawals":
+                return ARCHIVED_WITHDRAWALS;
+            case "transfers":
+                return ARCHIVED_TRANSFERS;
+            case "failed":
+                return ARCHIVED_FAILED;
+            default:
+                return null;
+        }
+    }
+
     private Page<Transaction> filterTransactionsByRemark(String remark, Pageable pageable) {
         User currentUser = securityUtil.getCurrentUser();
 
         if (currentUser == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         if (securityUtil.isAdmin()) {
@@ -94,7 +275,7 @@ public class TransactionService {
         User currentUser = securityUtil.getCurrentUser();
 
         if (currentUser == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         if (securityUtil.isAdmin()) {
@@ -108,7 +289,7 @@ public class TransactionService {
         User currentUser = securityUtil.getCurrentUser();
 
         if (currentUser == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         if (securityUtil.isAdmin()) {
@@ -171,17 +352,15 @@ public class TransactionService {
     }
 
     public void generateAndEmailStatement() throws jakarta.mail.MessagingException {
+        // Before the first query, so the archive check and the table reads agree on what is deleted
+        Set<YearMonth> settledMonths = transactionArchiveStore.settledMonths();
         User currentUser = securityUtil.getCurrentUser();
 
         if (currentUser == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
-        // Fetch transactions and wallets within the transactional method
-        List<Transaction> transactions = transactionRepo.findAllByUserId(currentUser.getId());
-        List<com.example.E_Wallet.Model.Wallet> userWallets = walletRepo.findByUserId(currentUser.getId());
-
-        byte[] csvBytes = statementCsvBuilder.buildStatementCsv(currentUser, transactions, userWallets);
+        byte[] csvBytes = buildStatement(currentUser, settledMonths);
 
         emailService.sendStatementEmail(
                 currentUser.getEmail(),
@@ -189,4 +368,58 @@ public class TransactionService {
                 csvBytes
         );
     }
+
+    // Only rows newer than the cached high-water mark are fetched and rendered
+    private byte[] buildStatement(User user, Set<YearMonth> settledMonths) {
+        UUID userId = user.getId();
+        List<Wallet> userWallets = walletRepo.findByUserId(userId);
+
+        // Rows newer than this may still change status (pending OTP), so they are rendered but not cached
+        LocalDateTime settledBefore = LocalDateTime.now().minusMinutes(statementSettleMinutes);
+
+        StatementCache.CachedRows cached = statementCache.get(userId);
+        LocalDateTime mark = cached != null ? cached.getHighWaterMark() : null;
+        List<Transaction> newer;
+        if (mark == null) {
+            // First build covers the full history, including archived months
+            // Keyed by id: a row being archived must not reach the permanently cached blocks twice
+            Map<UUID, Transaction> byId = new LinkedHashMap<>();
+            for (Transaction transaction : transactionRepo.findAllByUserId(userId)) {
+                byId.put(transaction.getId(), transaction);
+            }
+            List<UUID> walletIds = userWallets.stream().map(Wallet::getId).collect(Collectors.toList());
+            for (Transaction transaction : transactionArchiveStore.read(walletIds, null, null, null, settledMonths)) {
+                byId.putIfAbsent(transaction.getId(), transaction);
+            }
+            newer = new ArrayList<>(byId.values());
+        } else {
+            newer = transactionRepo.findAllByUserIdAfter(userId, mark);
+        }
+
+        List<Transaction> settled = new ArrayList<>();
+        List<Transaction> recent = new ArrayList<>();
+        for (Transaction transaction : newer) {
+            LocalDateTime date = transaction.getTransactionDate();
+            if (date == null || !date.isAfter(settledBefore)) {
+                settled.add(transaction);
+            } else {
+                recent.add(transaction);
+            }
+        }
+
+        String settledRows = statementCsvBuilder.buildRows(settled);
+        if (mark == null || settledBefore.isAfter(mark)) {
+            statementCache.append(userId, mark, settledBefore, settledRows);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(statementCsvBuilder.buildHeader(user, userWallets).getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(statementCsvBuilder.buildRows(recent).getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(settledRows.getBytes(StandardCharsets.UTF_8));
+        if (cached != null) {
+            StatementCache.writeBlocks(cached.getBlocks(), out);
+        }
+        out.writeBytes(statementCsvBuilder.buildFooter(userWallets).getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
 }
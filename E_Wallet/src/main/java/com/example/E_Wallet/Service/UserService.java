@@ -10,9 +10,11 @@ import com.example.E_Wallet.DTO.UserCreateDTO;
 import com.example.E_Wallet.DTO.LoginRequestDTO;
 import com.example.E_Wallet.DTO.AuthResponseDTO;
 import com.example.E_Wallet.Util.JwtUtil;
+import com.example.E_Wallet.Security.WalletOwnershipIndex;
 import com.example.E_Wallet.Exceptions.DuplicateResourceException;
 import com.example.E_Wallet.Exceptions.ResourceNotFoundException;
 import com.example.E_Wallet.Exceptions.ValidationException;
+import com.example.E_Wallet.Exceptions.ErrorCode;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -27,6 +29,9 @@ public class UserService {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private WalletOwnershipIndex walletOwnershipIndex;
+
     // BCrypt password encoder
     private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
@@ -98,7 +103,7 @@ public class UserService {
         User user = userRepo.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         userRepo.delete(user);
-
+        walletOwnershipIndex.userDeleted(id);
     }
 
     private UserDTO convertToDTO(User user) {
@@ -124,13 +129,13 @@ public class UserService {
         Optional<User> userOptional = userRepo.findByEmail(loginRequest.getEmail());
 
         if (userOptional.isEmpty()) {
-            throw new ValidationException("Invalid email or password");
+            throw new ValidationException(ErrorCode.INVALID_CREDENTIALS, "Invalid email or password");
         }
 
         User user = userOptional.get();
 
         if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
-            throw new ValidationException("Invalid email or password");
+            throw new ValidationException(ErrorCode.INVALID_CREDENTIALS, "Invalid email or password");
         }
 
         String token = jwtUtil.generateToken(user.getId(), user.getEmail());
@@ -0,0 +1,261 @@
+package com.example.E_Wallet.Service;
+
+import com.example.E_Wallet.Exceptions.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory sliding-window velocity limits per user and per wallet.
+ *
+ * Each key keeps a one-minute window (12 x 5s buckets) and a one-hour window
+ * (60 x 1min buckets) of attempt counts and amounts, plus running totals that
+ * are adjusted as buckets fall out of the window. Keys are guarded by a fixed
+ * set of striped locks, so a check reads a few fields and never touches the
+ * database.
+ */
+@Component
+public class VelocityLimiter {
+
+    private static final int STRIPES = 64;
+    private static final long IDLE_EVICTION_MILLIS = 60 * 60 * 1000; // the longest window
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final Map<UUID, Counters> userCounters = new ConcurrentHashMap<>();
+    private final Map<UUID, Counters> walletCounters = new ConcurrentHashMap<>();
+
+    @Value("${velocity.enabled:true}")
+    private boolean enabled;
+
+    @Value("${velocity.user.max-count-per-minute:10}")
+    private int userMaxCountPerMinute;
+
+    @Value("${velocity.user.max-count-per-hour:100}")
+    private int userMaxCountPerHour;
+
+    @Value("${velocity.user.max-amount-per-minute:50000}")
+    private double userMaxAmountPerMinute;
+
+    @Value("${velocity.user.max-amount-per-hour:200000}")
+    private double userMaxAmountPerHour;
+
+    @Value("${velocity.wallet.max-count-per-minute:5}")
+    private int walletMaxCountPerMinute;
+
+    @Value("${velocity.wallet.max-count-per-hour:50}")
+    private int walletMaxCountPerHour;
+
+    @Value("${velocity.wallet.max-amount-per-minute:50000}")
+    private double walletMaxAmountPerMinute;
+
+    @Value("${velocity.wallet.max-amount-per-hour:200000}")
+    private double walletMaxAmountPerHour;
+
+    public VelocityLimiter() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // Enabled, with the given limits instead of injected ones; for benchmarks
+    VelocityLimiter(int userMaxCountPerMinute, int userMaxCountPerHour,
+                    double userMaxAmountPerMinute, double userMaxAmountPerHour,
+                    int walletMaxCountPerMinute, int walletMaxCountPerHour,
+                    double walletMaxAmountPerMinute, double walletMaxAmountPerHour) {
+        this();
+        this.enabled = true;
+        this.userMaxCountPerMinute = userMaxCountPerMinute;
+        this.userMaxCountPerHour = userMaxCountPerHour;
+        this.userMaxAmountPerMinute = userMaxAmountPerMinute;
+        this.userMaxAmountPerHour = userMaxAmountPerHour;
+        this.walletMaxCountPerMinute = walletMaxCountPerMinute;
+        this.walletMaxCountPerHour = walletMaxCountPerHour;
+        this.walletMaxAmountPerMinute = walletMaxAmountPerMinute;
+        this.walletMaxAmountPerHour = walletMaxAmountPerHour;
+    }
+
+    /**
+     * Records an attempt for the user and wallet, or throws without recording
+     * anything if either is over its limits.
+     */
+    public void checkAndRecord(UUID userId, UUID walletId, Double amount) {
+        if (!enabled || (userId == null && walletId == null)) {
+            return;
+        }
+
+        double attemptAmount = amount != null && amount > 0 ? amount : 0.0;
+
+        while (true) {
+            long now = System.currentTimeMillis();
+            Counters user = userId != null ? userCounters.computeIfAbsent(userId, id -> new Counters()) : null;
+            Counters wallet = walletId != null ? walletCounters.computeIfAbsent(walletId, id -> new Counters()) : null;
+
+            // Lock stripes in index order so concurrent checks cannot deadlock
+            int userStripe = stripeFor(userId != null ? userId : walletId);
+            int walletStripe = stripeFor(walletId != null ? walletId : userId);
+            ReentrantLock first = stripes[Math.min(userStripe, walletStripe)];
+            ReentrantLock second = userStripe != walletStripe ? stripes[Math.max(userStripe, walletStripe)] : null;
+
+            first.lock();
+            if (second != null) {
+                second.lock();
+            }
+            try {
+                if ((user != null && user.evicted) || (wallet != null && wallet.evicted)) {
+                    continue; // lost a race with evictIdle(), pick up fresh counters
+                }
+
+                if (user != null) {
+                    user.advance(now);
+                }
+                if (wallet != null) {
+                    wallet.advance(now);
+                }
+
+                if (user != null) {
+                    checkLimits(user, attemptAmount, "user", userMaxCountPerMinute, userMaxCountPerHour,
+                            userMaxAmountPerMinute, userMaxAmountPerHour);
+                }
+                if (wallet != null) {
+                    checkLimits(wallet, attemptAmount, "wallet", walletMaxCountPerMinute, walletMaxCountPerHour,
+                            walletMaxAmountPerMinute, walletMaxAmountPerHour);
+                }
+
+                if (user != null) {
+                    user.record(now, attemptAmount);
+                }
+                if (wallet != null) {
+                    wallet.record(now, attemptAmount);
+                }
+                return;
+            } finally {
+                if (second != null) {
+                    second.unlock();
+                }
+                first.unlock();
+            }
+        }
+    }
+
+    @Scheduled(fixedRate = 300000)
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - IDLE_EVICTION_MILLIS;
+        evictIdle(userCounters, cutoff);
+        evictIdle(walletCounters, cutoff);
+    }
+
+    private void evictIdle(Map<UUID, Counters> counters, long cutoff) {
+        for (Map.Entry<UUID, Counters> entry : counters.entrySet()) {
+            if (entry.getValue().lastSeen >= cutoff) {
+                continue;
+            }
+            ReentrantLock lock = stripes[stripeFor(entry.getKey())];
+            lock.lock();
+            try {
+                Counters idle = entry.getValue();
+                if (idle.lastSeen < cutoff && counters.remove(entry.getKey(), idle)) {
+                    idle.evicted = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void checkLimits(Counters counters, double amount, String scope,
+                             int maxPerMinute, int maxPerHour, double maxAmountPerMinute, double maxAmountPerHour) {
+        if (counters.minute.count + 1 > maxPerMinute) {
+            throw new TooManyRequestsException("Too many requests for this " + scope
+                    + ": limit is " + maxPerMinute + " per minute");
+        }
+        if (counters.hour.count + 1 > maxPerHour) {
+            throw new TooManyRequestsException("Too many requests for this " + scope
+                    + ": limit is " + maxPerHour + " per hour");
+        }
+        if (counters.minute.amount + amount > maxAmountPerMinute) {
+            throw new TooManyRequestsException("Amount limit exceeded for this " + scope
+                    + ": limit is " + maxAmountPerMinute + " per minute");
+        }
+        if (counters.hour.amount + amount > maxAmountPerHour) {
+            throw new TooManyRequestsException("Amount limit exceeded for this " + scope
+                    + ": limit is " + maxAmountPerHour + " per hour");
+        }
+    }
+
+    private int stripeFor(UUID key) {
+        int h = key.hashCode();
+        return ((h ^ (h >>> 16)) & 0x7fffffff) % STRIPES;
+    }
+
+    // Guarded by the stripe lock of its key
+    private static final class Counters {
+        final Window minute = new Window(12, 5_000);
+        final Window hour = new Window(60, 60_000);
+        volatile long lastSeen = System.currentTimeMillis();
+        boolean evicted;
+
+        void advance(long now) {
+            minute.advance(now);
+            hour.advance(now);
+        }
+
+        // Call advance first
+        void record(long now, double amount) {
+            minute.add(amount);
+            hour.add(amount);
+            lastSeen = now;
+        }
+    }
+
+    private static final class Window {
+        final int buckets;
+        final long bucketMillis;
+        final int[] counts;
+        final double[] amounts;
+        long currentEpoch = -1;
+        long count;
+        double amount;
+
+        Window(int buckets, long bucketMillis) {
+            this.buckets = buckets;
+            this.bucketMillis = bucketMillis;
+            this.counts = new int[buckets];
+            this.amounts = new double[buckets];
+        }
+
+        // Empties the buckets that have left the window since the last call and takes them off the totals
+        void advance(long now) {
+            long epoch = now / bucketMillis;
+            if (epoch <= currentEpoch) {
+                return;
+            }
+            long expired = Math.min(epoch - currentEpoch, buckets);
+            for (long e = epoch - expired + 1; e <= epoch; e++) {
+                int index = (int) (e % buckets);
+                count -= counts[index];
+                amount -= amounts[index];
+                counts[index] = 0;
+                amounts[index] = 0.0;
+            }
+            if (expired == buckets) {
+                // Whole window is empty; start the totals afresh so rounding cannot build up
+                count = 0;
+                amount = 0.0;
+            }
+            currentEpoch = epoch;
+        }
+
+        void add(double value) {
+            int index = (int) (currentEpoch % buckets);
+            counts[index]++;
+            amounts[index] += value;
+            count++;
+            amount += value;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.E_Wallet.Service;
+
+import com.example.E_Wallet.DTO.JobRunDTO;
+import com.example.E_Wallet.DTO.WalletAnalyticsDTO;
+import com.example.E_Wallet.DTO.WalletDailyStatDTO;
+import com.example.E_Wallet.Exceptions.ResourceNotFoundException;
+import com.example.E_Wallet.Exceptions.ValidationException;
+import com.example.E_Wallet.Exceptions.ErrorCode;
+import com.example.E_Wallet.Model.Transaction;
+import com.example.E_Wallet.Model.User;
+import com.example.E_Wallet.Model.Wallet;
+import com.example.E_Wallet.Model.WalletDailyStats;
+import com.example.E_Wallet.Repository.TransactionRepo;
+import com.example.E_Wallet.Repository.WalletDailyStatsRepo;
+import com.example.E_Wallet.Repository.WalletRepo;
+import com.example.E_Wallet.Security.SecurityUtil;
+import com.example.E_Wallet.Security.WalletOwnershipIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+public class WalletAnalyticsService {
+
+    private static final int REBUILD_PARTITION_SIZE = 500;
+    private static final int MAX_RANGE_DAYS = 366;
+
+    @Autowired
+    private WalletDailyStatsRepo walletDailyStatsRepo;
+
+    @Autowired
+    private WalletRepo walletRepo;
+
+    @Autowired
+    private TransactionRepo transactionRepo;
+
+    @Autowired
+    private SecurityUtil securityUtil;
+
+    @Autowired
+    private WalletOwnershipIndex walletOwnershipIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PartitionedJobRunner partitionedJobRunner;
+
+    @Autowired
+    private TransactionArchiveStore transactionArchiveStore;
+
+    @Value("${analytics.rebuild.parallelism:4}")
+    private int rebuildParallelism;
+
+    // Must run inside the transaction that marks the transaction as success
+    @Transactional
+    public void recordSuccessfulTransaction(Transaction transaction) {
+        String type = classify(transaction.getRemarks());
+        if (type == null) {
+            return;
+        }
+
+        LocalDate day = transaction.getTransactionDate().toLocalDate();
+        double amount = transaction.getAmount();
+        UUID senderWalletId = transaction.getSenderWallet().getId();
+
+        switch (type) {
+            case "CREDIT":
+                walletDailyStatsRepo.upsertDay(UUID.randomUUID(), senderWalletId, day, amount, 1, 0.0, 0);
+                break;
+            case "WITHDRAW":
+                walletDailyStatsRepo.upsertDay(UUID.randomUUID(), senderWalletId, day, 0.0, 0, amount, 1);
+                break;
+            case "TRANSFER":
+                walletDailyStatsRepo.upsertDay(UUID.randomUUID(), senderWalletId, day, 0.0, 0, amount, 1);
+                walletDailyStatsRepo.upsertDay(UUID.randomUUID(), transaction.getReceiverWallet().getId(), day,
+                        amount, 1, 0.0, 0);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public WalletAnalyticsDTO getWalletAnalytics(UUID walletId, LocalDate from, LocalDate to) {
+        User currentUser = securityUtil.getCurrentUser();
+
+        if (currentUser == null) {
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
+        }
+
+        if (!securityUtil.isAdmin()) {
+            if (!walletOwnershipIndex.authorize(walletId, currentUser.getId())) {
+                throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: You can only access your own wallets");
+            }
+        }
+
+        Wallet wallet = walletRepo.findById(walletId)
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found with id: " + walletId));
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.withDayOfMonth(1);
+
+        if (start.isAfter(end)) {
+            throw new ValidationException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+            throw new ValidationException("Date range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+
+        List<WalletDailyStats> stats = walletDailyStatsRepo
+                .findByWalletIdAndStatDateBetweenOrderByStatDateAsc(walletId, start, end);
+
+        WalletAnalyticsDTO analytics = new WalletAnalyticsDTO();
+        analytics.setWalletId(walletId);
+        analytics.setFrom(start);
+        analytics.setTo(end);
+        analytics.setDays(stats.stream().map(this::convertToDTO).collect(Collectors.toList()));
+
+        for (WalletDailyStats day : stats) {
+            analytics.setTotalCredits(analytics.getTotalCredits() + day.getCreditTotal());
+            analytics.setCreditCount(analytics.getCreditCount() + day.getCreditCount());
+            analytics.setTotalDebits(analytics.getTotalDebits() + day.getDebitTotal());
+            analytics.setDebitCount(analytics.getDebitCount() + day.getDebitCount());
+        }
+        analytics.setNetFlow(analytics.getTotalCredits() - analytics.getTotalDebits());
+        return analytics;
+    }
+
+    /**
+     * Recomputes every wallet's rollup from transaction history.
+     *
+     * Wallets are split into ID partitions that are aggregated with GROUP BY
+     * queries and rewritten in their own transaction, in parallel. A partition
+     * first locks its wallet rows. Settling a transaction updates the balance
+     * of every wallet it touches in the same transaction as its upsertDay, so
+     * settlements for these wallets either committed before the lock (and are
+     * in the aggregates) or wait for the rebuild to commit (and add on top of
+     * the rebuilt rows). Nothing is counted twice or missed, and no live
+     * upsert can insert a day's row between the delete and the re-insert.
+     */
+    public JobRunDTO rebuildAll() {
+        long startNanos = System.nanoTime();
+        List<UUID> walletIds = walletRepo.findAllIds();
+
+        long rowsWritten = partitionedJobRunner.run("Analytics rebuild", walletIds,
+                REBUILD_PARTITION_SIZE, rebuildParallelism, this::rebuildPartition);
+
+        return partitionedJobRunner.summarize("wallet-daily-stats-rebuild", walletIds.size(), rowsWritten, startNanos);
+    }
+
+    private long rebuildPartition(List<UUID> walletIds) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        return transactionTemplate.execute(status -> {
+            // A locking read takes no snapshot, so the sums below see every settlement committed before the lock
+            walletRepo.lockAllByIdIn(walletIds);
+
+            // Days before the archive horizon have no hot rows left to rebuild from, so they are kept
+            LocalDateTime horizon = transactionArchiveStore.horizon();
+            if (horizon == null) {
+                walletDailyStatsRepo.deleteByWalletIds(walletIds);
+            } else {
+                walletDailyStatsRepo.deleteByWalletIdsFrom(walletIds, horizon.toLocalDate());
+            }
+
+            Map<UUID, Map<LocalDate, WalletDailyStats>> rollups = new HashMap<>();
+
+            for (Object[] row : transactionRepo.sumSuccessfulBySenderAndDay(walletIds)) {
+                String type = classify((String) row[2]);
+                if (type == null) {
+                    continue;
+                }
+                WalletDailyStats day = dayFor(rollups, (UUID) row[0], toLocalDate(row[1]));
+                double sum = ((Number) row[3]).doubleValue();
+                long count = ((Number) row[4]).longValue();
+                if ("CREDIT".equals(type)) {
+                    day.setCreditTotal(day.getCreditTotal() + sum);
+                    day.setCreditCount(day.getCreditCount() + count);
+                } else {
+                    day.setDebitTotal(day.getDebitTotal() + sum);
+                    day.setDebitCount(day.getDebitCount() + count);
+                }
+            }
+
+            for (Object[] row : transactionRepo.sumSuccessfulTransfersByReceiverAndDay(walletIds)) {
+                WalletDailyStats day = dayFor(rollups, (UUID) row[0], toLocalDate(row[1]));
+                day.setCreditTotal(day.getCreditTotal() + ((Number) row[2]).doubleValue());
+                day.setCreditCount(day.getCreditCount() + ((Number) row[3]).longValue());
+            }
+
+            List<WalletDailyStats> rows = rollups.values().stream()
+                    .flatMap(days -> days.values().stream())
+                    .collect(Collectors.toList());
+            walletDailyStatsRepo.saveAll(rows);
+            return (long) rows.size();
+        });
+    }
+
+    private WalletDailyStats dayFor(Map<UUID, Map<LocalDate, WalletDailyStats>> rollups, UUID walletId, LocalDate date) {
+        return rollups.computeIfAbsent(walletId, id -> new HashMap<>())
+                .computeIfAbsent(date, d -> {
+                    WalletDailyStats stats = new WalletDailyStats();
+                    stats.setWalletId(walletId);
+                    stats.setStatDate(d);
+                    return stats;
+                });
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        }
+        return LocalDate.parse(value.toString());
+    }
+
+    // Same remark matching as WalletService.processTransactionAfterOtpVerification
+    static String classify(String remarks) {
+        String type = remarks != null ? remarks.toUpperCase() : "";
+        if (type.contains("CREDIT")) {
+            return "CREDIT";
+        }
+        if (type.contains("WITHDRAW")) {
+            return "WITHDRAW";
+        }
+        if (type.contains("TRANSFER") || type.contains("FUND")) {
+            return "TRANSFER";
+        }
+        return null;
+    }
+
+    private WalletDailyStatDTO convertToDTO(WalletDailyStats stats) {
+        WalletDailyStatDTO dto = new WalletDailyStatDTO();
+        dto.setDate(stats.getStatDate());
+        dto.setCreditTotal(stats.getCreditTotal());
+        dto.setCreditCount(stats.getCreditCount());
+        dto.setDebitTotal(stats.getDebitTotal());
+        dto.setDebitCount(stats.getDebitCount());
+        return dto;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.E_Wallet.Service;
+
+import com.example.E_Wallet.Model.Transaction;
+import com.example.E_Wallet.Repository.TransactionRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Computes the net balance change of wallets from successful transactions,
+ * using the same credit/withdraw/transfer rules as
+ * WalletService.processTransactionAfterOtpVerification. Windows reaching
+ * back past the archive horizon also read the archived segments.
+ */
+@Component
+public class WalletFlowCalculator {
+
+    @Autowired
+    private TransactionRepo transactionRepo;
+
+    @Autowired
+    private TransactionArchiveStore transactionArchiveStore;
+
+    /**
+     * Wallets without any movement in [from, to) are absent from the result.
+     * settledMonths is TransactionArchiveStore.settledMonths(), taken by the
+     * caller before the first query of its transaction, so the sums and the
+     * archive read agree on which rows have been archived.
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, Double> netFlows(Collection<UUID> walletIds, LocalDateTime from, LocalDateTime to,
+                                      Set<YearMonth> settledMonths) {
+        Map<UUID, Double> flows = new HashMap<>();
+        if (walletIds.isEmpty()) {
+            return flows;
+        }
+
+        for (Object[] row : transactionRepo.sumSuccessfulBySenderBetween(walletIds, from, to)) {
+            String type = WalletAnalyticsService.classify((String) row[1]);
+            if (type == null) {
+                continue;
+            }
+            double sum = ((Number) row[2]).doubleValue();
+            flows.merge((UUID) row[0], "CREDIT".equals(type) ? sum : -sum, Double::sum);
+        }
+
+        for (Object[] row : transactionRepo.sumSuccessfulTransfersByReceiverBetween(walletIds, from, to)) {
+            flows.merge((UUID) row[0], ((Number) row[1]).doubleValue(), Double::sum);
+        }
+
+        LocalDateTime horizon = transactionArchiveStore.horizon();
+        if (horizon != null && from.isBefore(horizon)) {
+            LocalDateTime archivedTo = to.isBefore(horizon) ? to : horizon;
+            Set<UUID> include = new HashSet<>(walletIds);
+            for (Transaction transaction : transactionArchiveStore.read(walletIds, from, archivedTo, null, settledMonths)) {
+                addNetFlow(flows, transaction.getSenderWallet().getId(), transaction.getReceiverWallet().getId(),
+                        transaction.getAmount(), transaction.getStatus(), transaction.getRemarks(), include);
+            }
+        }
+        return flows;
+    }
+
+    // Single-row form of the rules above; only wallets in 'include' are credited or debited
+    public static void addNetFlow(Map<UUID, Double> flows, UUID senderWalletId, UUID receiverWalletId,
+                                  double amount, String status, String remarks, Collection<UUID> include) {
+        if (status == null || !"success".equalsIgnoreCase(status)) {
+            return;
+        }
+        String type = WalletAnalyticsService.classify(remarks);
+        if (type != null && include.contains(senderWalletId)) {
+            flows.merge(senderWalletId, "CREDIT".equals(type) ? amount : -amount, Double::sum);
+        }
+        if (!senderWalletId.equals(receiverWalletId) && include.contains(receiverWalletId)) {
+            flows.merge(receiverWalletId, amount, Double::sum);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.E_Wallet.Service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -19,10 +22,13 @@ import com.example.E_Wallet.DTO.WalletUpdateDTO;
 import com.example.E_Wallet.DTO.CreditRequestDTO;
 import com.example.E_Wallet.DTO.WithdrawalRequestDTO;
 import com.example.E_Wallet.DTO.TransferRequestDTO;
+import com.example.E_Wallet.DTO.TransactionInitiationDTO;
 import com.example.E_Wallet.Exceptions.DuplicateResourceException;
 import com.example.E_Wallet.Exceptions.ResourceNotFoundException;
 import com.example.E_Wallet.Exceptions.ValidationException;
+import com.example.E_Wallet.Exceptions.ErrorCode;
 import com.example.E_Wallet.Security.SecurityUtil;
+import com.example.E_Wallet.Security.WalletOwnershipIndex;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -33,6 +39,8 @@ import java.util.stream.Collectors;
 @Transactional
 public class WalletService {
 
+    private static final Logger log = LoggerFactory.getLogger(WalletService.class);
+
     @Autowired
     private WalletRepo walletRepo;
 
@@ -45,6 +53,9 @@ public class WalletService {
     @Autowired
     private SecurityUtil securityUtil;
 
+    @Autowired
+    private WalletOwnershipIndex walletOwnershipIndex;
+
     @Autowired
     private PlatformTransactionManager transactionManager;
 
@@ -54,11 +65,26 @@ public class WalletService {
     @Autowired
     private OtpService otpService;
 
+    @Autowired
+    private WalletAnalyticsService walletAnalyticsService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private VelocityLimiter velocityLimiter;
+
+    @Autowired
+    private StepUpPolicy stepUpPolicy;
+
+    @Autowired
+    private TransactionEventBus transactionEventBus;
+
     public List<WalletDTO> getWallets() {
         User currentUser = securityUtil.getCurrentUser();
 
         if (currentUser == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         List<Wallet> wallets;
@@ -75,21 +101,21 @@ public class WalletService {
     }
 
     public WalletDTO getWalletById(UUID id) {
-        Wallet wallet = walletRepo.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found with id: " + id));
-
         User currentUser = securityUtil.getCurrentUser();
 
         if (currentUser == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         if (!securityUtil.isAdmin()) {
-            if (!wallet.getUser().getId().equals(currentUser.getId())) {
-                throw new ValidationException("Access denied: You can only access your own wallets");
+            if (!walletOwnershipIndex.authorize(id, currentUser.getId())) {
+                throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: You can only access your own wallets");
             }
         }
 
+        Wallet wallet = walletRepo.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found with id: " + id));
+
         return convertToDTO(wallet);
     }
 
@@ -116,6 +142,7 @@ public class WalletService {
         wallet.setCreatedAt(LocalDateTime.now());
 
         Wallet savedWallet = walletRepo.save(wallet);
+        walletOwnershipIndex.walletSaved(savedWallet.getId(), user.getId());
         return convertToDTO(savedWallet);
     }
 
@@ -136,15 +163,15 @@ public class WalletService {
         User currentUser = securityUtil.getCurrentUser();
 
         if (currentUser == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         boolean isAdmin = securityUtil.isAdmin();
 
         if (!isAdmin) {
 
-            if (!wallet.getUser().getId().equals(currentUser.getId())) {
-                throw new ValidationException("Access denied: You can only update your own wallets");
+            if (!walletOwnershipIndex.authorize(wallet.getId(), currentUser.getId())) {
+                throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: You can only update your own wallets");
             }
         }
 
@@ -152,12 +179,13 @@ public class WalletService {
         if (walletUpdateDTO.getNewUserIdentifier() != null
                 && !walletUpdateDTO.getNewUserIdentifier().trim().isEmpty()) {
             if (!isAdmin) {
-                throw new ValidationException("You cannot change wallet ownership");
+                throw new ValidationException(ErrorCode.ACCESS_DENIED, "You cannot change wallet ownership");
             }
             user = findUserByIdentifier(walletUpdateDTO.getNewUserIdentifier())
                     .orElseThrow(() -> new ResourceNotFoundException(
                             "User not found with identifier: " + walletUpdateDTO.getNewUserIdentifier()));
             wallet.setUser(user);
+            walletOwnershipIndex.walletSaved(wallet.getId(), user.getId());
         }
 
         if (walletUpdateDTO.getNewWalletName() != null && !walletUpdateDTO.getNewWalletName().trim().isEmpty()) {
@@ -177,6 +205,10 @@ public class WalletService {
             if (walletUpdateDTO.getBalance() < 0) {
                 throw new ValidationException("Balance must be 0 or greater");
             }
+            // Manual edits are not transactions, so carry them into the reconciliation baseline
+            if (wallet.getOpeningBalance() != null) {
+                wallet.setOpeningBalance(wallet.getOpeningBalance() + walletUpdateDTO.getBalance() - wallet.getBalance());
+            }
             wallet.setBalance(walletUpdateDTO.getBalance());
         }
 
@@ -209,48 +241,50 @@ public class WalletService {
         User currentUser = securityUtil.getCurrentUser();
 
         if (currentUser == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         if (!securityUtil.isAdmin()) {
-            // Access user relationship to check ownership
-            UUID walletOwnerId = wallet.getUser().getId();
-            if (!walletOwnerId.equals(currentUser.getId())) {
-                throw new ValidationException("Access denied: You can only delete your own wallets");
+            if (!walletOwnershipIndex.authorize(wallet.getId(), currentUser.getId())) {
+                throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: You can only delete your own wallets");
             }
         }
 
         walletRepo.delete(wallet);
+        walletOwnershipIndex.walletDeleted(wallet.getId());
     }
 
-    public UUID creditWallet(CreditRequestDTO creditRequestDTO) {
+    public TransactionInitiationDTO creditWallet(CreditRequestDTO creditRequestDTO, String stepUpToken) {
         UUID walletId = creditRequestDTO.getWalletId();
         Double amount = creditRequestDTO.getAmount();
 
+        // Runs before any passcode hashing or transaction record is written
+        velocityLimiter.checkAndRecord(securityUtil.getCurrentUserId(), walletId, amount);
+
         if (amount == null || amount <= 0) {
             createFailedTransaction(walletId, walletId, amount, "Amount must be greater than 0");
-            throw new ValidationException("Amount must be greater than 0");
+            throw new ValidationException(ErrorCode.INVALID_AMOUNT, "Amount must be greater than 0");
         }
 
-        Wallet wallet = walletRepo.findById(walletId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Wallet not found with id: " + walletId));
-
         User currentUser = securityUtil.getCurrentUser();
         if (currentUser == null) {
             createFailedTransaction(walletId, walletId, amount, "User not authenticated");
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
-        if (!wallet.getUser().getId().equals(currentUser.getId())) {
-            createFailedTransaction(walletId, walletId, amount, "Access denied: You can only credit your own wallets");
-            throw new ValidationException("Access denied: You can only credit your own wallets");
+        // Rejected from the ownership index before the wallet is loaded
+        if (!walletOwnershipIndex.authorize(walletId, currentUser.getId())) {
+            throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: You can only credit your own wallets");
         }
 
+        Wallet wallet = walletRepo.findById(walletId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Wallet not found with id: " + walletId));
+
         // Verify entered passcode against hashed passcode in database
         if (!passwordEncoder.matches(creditRequestDTO.getPasscode(), wallet.getPasscode())) {
             createFailedTransaction(walletId, walletId, amount, "Invalid passcode");
-            throw new ValidationException("Invalid passcode");
+            throw new ValidationException(ErrorCode.INVALID_PASSCODE, "Invalid passcode");
         }
 
         Transaction pendingTransaction = createPendingTransaction(
@@ -259,49 +293,55 @@ public class WalletService {
                 amount,
                 "Credit transaction");
 
+        // A recent OTP (step-up token) covers small amounts, so settle without another round trip
+        if (stepUpPolicy.tryBypass(stepUpToken, currentUser.getId(), amount)) {
+            processTransactionAfterOtpVerification(pendingTransaction.getId());
+            return new TransactionInitiationDTO(pendingTransaction.getId(), false);
+        }
+
         otpService.createAndSendOtp(
                 pendingTransaction.getId(),
                 currentUser.getId(),
                 currentUser.getEmail(),
                 "CREDIT");
 
-        return pendingTransaction.getId();
+        return new TransactionInitiationDTO(pendingTransaction.getId(), true);
     }
 
-    public UUID withdrawWallet(WithdrawalRequestDTO withdrawalRequestDTO) {
+    public TransactionInitiationDTO withdrawWallet(WithdrawalRequestDTO withdrawalRequestDTO, String stepUpToken) {
         UUID walletId = withdrawalRequestDTO.getWalletId();
         Double amount = withdrawalRequestDTO.getAmount();
 
+        velocityLimiter.checkAndRecord(securityUtil.getCurrentUserId(), walletId, amount);
+
         if (amount == null || amount <= 0) {
             createFailedTransaction(walletId, walletId, amount, "Amount must be greater than 0");
-            throw new ValidationException("Amount must be greater than 0");
+            throw new ValidationException(ErrorCode.INVALID_AMOUNT, "Amount must be greater than 0");
         }
 
-        Wallet wallet = walletRepo.findById(walletId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Wallet not found with id: " + walletId));
-
         User currentUser = securityUtil.getCurrentUser();
         if (currentUser == null) {
             createFailedTransaction(walletId, walletId, amount, "User not authenticated");
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
-        
-        if (!wallet.getUser().getId().equals(currentUser.getId())) {
-            createFailedTransaction(walletId, walletId, amount, "Access denied: You can only withdraw from your own wallets");
-            throw new ValidationException("Access denied: You can only withdraw from your own wallets");
+        if (!walletOwnershipIndex.authorize(walletId, currentUser.getId())) {
+            throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: You can only withdraw from your own wallets");
         }
 
+        Wallet wallet = walletRepo.findById(walletId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Wallet not found with id: " + walletId));
+
         // Verify entered passcode against hashed passcode in database
         if (!passwordEncoder.matches(withdrawalRequestDTO.getPasscode(), wallet.getPasscode())) {
             createFailedTransaction(walletId, walletId, amount, "Invalid passcode");
-            throw new ValidationException("Invalid passcode");
+            throw new ValidationException(ErrorCode.INVALID_PASSCODE, "Invalid passcode");
         }
 
         if (wallet.getBalance() < amount) {
             createFailedTransaction(walletId, walletId, amount, "Insufficient balance");
-            throw new ValidationException("Insufficient balance");
+            throw new ValidationException(ErrorCode.INSUFFICIENT_BALANCE, "Insufficient balance");
         }
 
         Transaction pendingTransaction = createPendingTransaction(
@@ -310,23 +350,30 @@ public class WalletService {
                 amount,
                 "Withdrawal transaction");
 
+        if (stepUpPolicy.tryBypass(stepUpToken, currentUser.getId(), amount)) {
+            processTransactionAfterOtpVerification(pendingTransaction.getId());
+            return new TransactionInitiationDTO(pendingTransaction.getId(), false);
+        }
+
         otpService.createAndSendOtp(
                 pendingTransaction.getId(),
                 currentUser.getId(),
                 currentUser.getEmail(),
                 "WITHDRAW");
 
-        return pendingTransaction.getId();
+        return new TransactionInitiationDTO(pendingTransaction.getId(), true);
     }
 
-    public UUID transferFunds(TransferRequestDTO transferRequestDTO) {
+    public TransactionInitiationDTO transferFunds(TransferRequestDTO transferRequestDTO, String stepUpToken) {
         UUID sourceWalletId = transferRequestDTO.getSourceWalletId();
         UUID destinationWalletId = transferRequestDTO.getDestinationWalletId();
         Double amount = transferRequestDTO.getAmount();
 
+        velocityLimiter.checkAndRecord(securityUtil.getCurrentUserId(), sourceWalletId, amount);
+
         if (amount == null || amount <= 0) {
             createFailedTransaction(sourceWalletId, destinationWalletId, amount, "Amount must be greater than 0");
-            throw new ValidationException("Amount must be greater than 0");
+            throw new ValidationException(ErrorCode.INVALID_AMOUNT, "Amount must be greater than 0");
         }
 
         if (sourceWalletId.equals(destinationWalletId)) {
@@ -334,30 +381,29 @@ public class WalletService {
             throw new ValidationException("Source and destination wallets cannot be the same");
         }
 
-        Wallet sourceWallet = walletRepo.findById(sourceWalletId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Source wallet not found with id: " + sourceWalletId));
-
         User currentUser = securityUtil.getCurrentUser();
         if (currentUser == null) {
             createFailedTransaction(sourceWalletId, destinationWalletId, amount, "User not authenticated");
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
-        if (!sourceWallet.getUser().getId().equals(currentUser.getId())) {
-            createFailedTransaction(sourceWalletId, destinationWalletId, amount, "Access denied: You can only transfer from your own wallets");
-            throw new ValidationException("Access denied: You can only transfer from your own wallets");
+        if (!walletOwnershipIndex.authorize(sourceWalletId, currentUser.getId())) {
+            throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: You can only transfer from your own wallets");
         }
 
+        Wallet sourceWallet = walletRepo.findById(sourceWalletId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Source wallet not found with id: " + sourceWalletId));
+
         // Verify entered passcode against hashed passcode in database
         if (!passwordEncoder.matches(transferRequestDTO.getPasscode(), sourceWallet.getPasscode())) {
             createFailedTransaction(sourceWalletId, destinationWalletId, amount, "Invalid passcode");
-            throw new ValidationException("Invalid passcode");
+            throw new ValidationException(ErrorCode.INVALID_PASSCODE, "Invalid passcode");
         }
 
         if (sourceWallet.getBalance() < amount) {
             createFailedTransaction(sourceWalletId, destinationWalletId, amount, "Insufficient balance");
-            throw new ValidationException("Insufficient balance");
+            throw new ValidationException(ErrorCode.INSUFFICIENT_BALANCE, "Insufficient balance");
         }
 
         Transaction pendingTransaction = createPendingTransaction(
@@ -366,13 +412,18 @@ public class WalletService {
                 amount,
                 "Fund transfer");
 
+        if (stepUpPolicy.tryBypass(stepUpToken, currentUser.getId(), amount)) {
+            processTransactionAfterOtpVerification(pendingTransaction.getId());
+            return new TransactionInitiationDTO(pendingTransaction.getId(), false);
+        }
+
         otpService.createAndSendOtp(
                 pendingTransaction.getId(),
                 currentUser.getId(),
                 currentUser.getEmail(),
                 "TRANSFER");
 
-        return pendingTransaction.getId();
+        return new TransactionInitiationDTO(pendingTransaction.getId(), true);
     }
 
     private Optional<User> findUserByIdentifier(String identifier) {
@@ -415,6 +466,7 @@ public class WalletService {
         wallet.setWalletName(walletCreateDTO.getWalletName());
         wallet.setAccountNumber(walletCreateDTO.getAccountNumber());
         wallet.setBalance(walletCreateDTO.getBalance());
+        wallet.setOpeningBalance(walletCreateDTO.getBalance());
         // Hash the passcode before saving
         String hashedPasscode = passwordEncoder.encode(walletCreateDTO.getPasscode());
         wallet.setPasscode(hashedPasscode);
@@ -430,10 +482,10 @@ public class WalletService {
                 Optional<Wallet> senderWalletOpt = walletRepo.findById(senderWalletId);
                 Optional<Wallet> receiverWalletOpt = walletRepo.findById(receiverWalletId);
 
-                if (senderWalletOpt.isPresent()) {
+                // Only record attempts against real wallets; a missing receiver is not replaced by the sender
+                if (senderWalletOpt.isPresent() && receiverWalletOpt.isPresent()) {
                     Wallet senderWallet = senderWalletOpt.get();
-                    Wallet receiverWallet = receiverWalletOpt.orElse(senderWallet); // Use sender as receiver if
-                                                                                    // receiver doesn't exist
+                    Wallet receiverWallet = receiverWalletOpt.get();
 
                     Transaction transaction = new Transaction();
                     transaction.setSenderWallet(senderWallet);
@@ -445,9 +497,12 @@ public class WalletService {
 
                     transactionRepo.save(transaction);
                     transactionRepo.flush();
+                    transactionEventBus.publishAfterCommit(transaction);
+                } else {
+                    log.warn("event=failed_transaction_not_recorded reason=wallet_not_found remarks={}", remarks);
                 }
             } catch (Exception e) {
-                System.err.println("Failed to create transaction record: " + e.getMessage());
+                log.warn("event=failed_transaction_not_recorded error={}", e.getMessage());
             }
         });
     }
@@ -472,11 +527,21 @@ public class WalletService {
     }
 
     public void processTransactionAfterOtpVerification(UUID transactionId) {
+        // Tags every log line written while settling, including Hibernate's, with the transaction id
+        MDC.put("txId", transactionId.toString());
+        try {
+            settlePendingTransaction(transactionId);
+        } finally {
+            MDC.remove("txId");
+        }
+    }
+
+    private void settlePendingTransaction(UUID transactionId) {
         Transaction transaction = transactionRepo.findById(transactionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found: " + transactionId));
 
         if (!"pending".equals(transaction.getStatus())) {
-            throw new ValidationException("Transaction is not in pending status");
+            throw new ValidationException(ErrorCode.TRANSACTION_NOT_PENDING, "Transaction is not in pending status");
         }
 
         Wallet senderWallet = transaction.getSenderWallet();
@@ -495,7 +560,7 @@ public class WalletService {
                     transaction.setStatus("failed");
                     transaction.setRemarks("Insufficient balance");
                     transactionRepo.save(transaction);
-                    throw new ValidationException("Insufficient balance");
+                    throw new ValidationException(ErrorCode.INSUFFICIENT_BALANCE, "Insufficient balance");
                 }
                 senderWallet.setBalance(senderWallet.getBalance() - amount);
                 walletRepo.save(senderWallet);
@@ -504,17 +569,18 @@ public class WalletService {
                     transaction.setStatus("failed");
                     transaction.setRemarks("Insufficient balance");
                     transactionRepo.save(transaction);
-                    throw new ValidationException("Insufficient balance");
+                    throw new ValidationException(ErrorCode.INSUFFICIENT_BALANCE, "Insufficient balance");
                 }
-                senderWallet.setBalance(senderWallet.getBalance() - amount);
-                receiverWallet.setBalance(receiverWallet.getBalance() + amount);
-                walletRepo.save(senderWallet);
-                walletRepo.save(receiverWallet);
+                applyTransfer(senderWallet, receiverWallet, amount);
             }
 
             transaction.setStatus("success");
             transaction.setRemarks(remarks != null ? remarks : "Transaction completed");
             transactionRepo.save(transaction);
+
+            walletAnalyticsService.recordSuccessfulTransaction(transaction);
+            outboxService.recordTransactionEvent(transaction);
+            transactionEventBus.publishAfterCommit(transaction);
         } catch (Exception e) {
             transaction.setStatus("failed");
             transaction.setRemarks("Transaction processing failed: " + e.getMessage());
@@ -522,4 +588,45 @@ public class WalletService {
             throw e;
         }
     }
+
+    /**
+     * Posting path for standing orders. Consent was given with an OTP when the
+     * order was set up, so the transfer is applied directly. The wallets must
+     * already be locked by the caller. An insufficient balance is recorded as a
+     * failed transaction and returned instead of thrown, so the caller's batch
+     * transaction is not marked rollback-only.
+     */
+    public Transaction postStandingOrderTransfer(Wallet senderWallet, Wallet receiverWallet, double amount) {
+        Transaction transaction = new Transaction();
+        transaction.setSenderWallet(senderWallet);
+        transaction.setReceiverWallet(receiverWallet);
+        transaction.setAmount(amount);
+        transaction.setTransactionDate(LocalDateTime.now());
+
+        if (senderWallet.getBalance() < amount) {
+            transaction.setStatus("failed");
+            transaction.setRemarks("Insufficient balance");
+            Transaction failed = transactionRepo.save(transaction);
+            transactionEventBus.publishAfterCommit(failed);
+            return failed;
+        }
+
+        applyTransfer(senderWallet, receiverWallet, amount);
+
+        transaction.setStatus("success");
+        transaction.setRemarks("Fund transfer");
+        Transaction saved = transactionRepo.save(transaction);
+
+        walletAnalyticsService.recordSuccessfulTransaction(saved);
+        outboxService.recordTransactionEvent(saved);
+        transactionEventBus.publishAfterCommit(saved);
+        return saved;
+    }
+
+    private void applyTransfer(Wallet senderWallet, Wallet receiverWallet, double amount) {
+        senderWallet.setBalance(senderWallet.getBalance() - amount);
+        receiverWallet.setBalance(receiverWallet.getBalance() + amount);
+        walletRepo.save(senderWallet);
+        walletRepo.save(receiverWallet);
+    }
 }
@@ -8,6 +8,9 @@ import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.KeyGenerator;
@@ -19,6 +22,11 @@ import java.util.UUID;
 @Component
 public class JwtUtil {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+
+    @Autowired
+    private LogSampler logSampler;
+
     private SecretKey secretKey;
 
     private static final long EXPIRATION_TIME = 30 * 60 * 1000; // 30 minutes
@@ -48,7 +56,7 @@ public class JwtUtil {
 
             this.secretKey = Keys.hmacShaKeyFor(finalKeyBytes);
 
-            System.out.println("JWT Secret Key generated successfully using KeyGenerator");
+            log.info("JWT secret key generated");
 
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("Failed to initialize JWT secret key", e);
@@ -78,26 +86,34 @@ public class JwtUtil {
                     .parseSignedClaims(token);
             return true;
         } catch (ExpiredJwtException e) {
-            System.err.println("JWT token has expired: " + e.getMessage());
+            logInvalid("expired", e);
             return false;
         } catch (MalformedJwtException e) {
-            System.err.println("Invalid JWT token format: " + e.getMessage());
+            logInvalid("malformed", e);
             return false;
         } catch (UnsupportedJwtException e) {
-            System.err.println("Unsupported JWT token: " + e.getMessage());
+            logInvalid("unsupported", e);
             return false;
         } catch (SignatureException e) {
-            System.err.println("Invalid JWT signature: " + e.getMessage());
+            logInvalid("bad_signature", e);
             return false;
         } catch (IllegalArgumentException e) {
-            System.err.println("JWT token is null or empty: " + e.getMessage());
+            logInvalid("empty", e);
             return false;
         } catch (Exception e) {
-            System.err.println("Error validating JWT token: " + e.getMessage());
+            logInvalid("error", e);
             return false;
         }
     }
 
+    // Invalid tokens arrive at request rate under attack, so these lines are sampled
+    private void logInvalid(String reason, Exception e) {
+        long suppressed = logSampler.sample("jwt.invalid");
+        if (suppressed >= 0) {
+            log.warn("event=jwt_invalid reason={} detail={} suppressed={}", reason, e.getMessage(), suppressed);
+        }
+    }
+
     public String getEmailFromToken(String token) {
         Claims claims = Jwts.parser()
                 .verifyWith(secretKey)
@@ -0,0 +1,53 @@
+package com.example.E_Wallet.Util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-category rate sampling for high-volume log lines such as rejected
+ * tokens. Each category may log logging.sampling.per-second lines per second;
+ * the rest are counted and the count is reported on the next line that does
+ * get logged, so nothing goes unnoticed.
+ */
+@Component
+public class LogSampler {
+
+    @Value("${logging.sampling.per-second:10}")
+    private int perSecond;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Returns -1 if this event should be dropped, otherwise the number of
+     * events suppressed in this category since the last one that was logged.
+     */
+    public long sample(String category) {
+        return windows.computeIfAbsent(category, c -> new Window()).admit(perSecond);
+    }
+
+    private static final class Window {
+        private long second;
+        private int admitted;
+        private final AtomicLong suppressed = new AtomicLong();
+
+        long admit(int limit) {
+            long now = System.currentTimeMillis() / 1000;
+            synchronized (this) {
+                if (now != second) {
+                    second = now;
+                    admitted = 0;
+                }
+                if (admitted >= limit) {
+                    suppressed.incrementAndGet();
+                    return -1;
+                }
+                admitted++;
+            }
+            return suppressed.getAndSet(0);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.E_Wallet.Service;
+
+import com.example.E_Wallet.Exceptions.TooManyRequestsException;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-call cost of E_Wallet's VelocityLimiter.checkAndRecord, the first step
+ * of credit, withdraw and transfer. "allowed" runs with limits nobody
+ * reaches, "rejected" with limits every call is over, so it measures the
+ * TooManyRequestsException path. A plain main(), not a test; run it from the
+ * test classpath:
+ *   mvn test-compile
+ *   java -cp target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *       com.example.E_Wallet.Service.VelocityLimiterBenchmark
+ */
+public class VelocityLimiterBenchmark {
+
+    static final int USERS = 10_000;
+    static final int OPS_PER_THREAD = 2_000_000;
+
+    static VelocityLimiter limiter(int maxCount, double maxAmount) {
+        return new VelocityLimiter(maxCount, maxCount, maxAmount, maxAmount,
+                maxCount, maxCount, maxAmount, maxAmount);
+    }
+
+    static long run(VelocityLimiter limiter, int threads, boolean sameUser, AtomicLong rejected)
+            throws InterruptedException {
+        UUID[] users = new UUID[USERS];
+        UUID[] wallets = new UUID[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = UUID.randomUUID();
+            wallets[i] = UUID.randomUUID();
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long over = 0;
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    int key = sameUser ? 0 : (seed * 7919 + i) % USERS;
+                    try {
+                        limiter.checkAndRecord(users[key], wallets[key], 25.0);
+                    } catch (TooManyRequestsException e) {
+                        over++;
+                    }
+                }
+                rejected.addAndGet(over);
+                done.countDown();
+            }).start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - begin;
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int i = 0; i < 3; i++) {
+            run(limiter(Integer.MAX_VALUE, Double.MAX_VALUE), 1, false, new AtomicLong());
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (boolean overLimit : new boolean[]{false, true}) {
+            for (int threads : new int[]{1, Math.max(4, cores)}) {
+                for (boolean sameUser : new boolean[]{false, true}) {
+                    VelocityLimiter limiter = overLimit
+                            ? limiter(0, 0.0)
+                            : limiter(Integer.MAX_VALUE, Double.MAX_VALUE);
+                    AtomicLong rejected = new AtomicLong();
+                    long nanos = run(limiter, threads, sameUser, rejected);
+                    long ops = (long) threads * OPS_PER_THREAD;
+                    System.out.printf("%-8s threads=%d %-12s %6.0f ns/check (per thread), %5.1f M checks/s total, %d rejected%n",
+                            overLimit ? "rejected" : "allowed", threads, sameUser ? "one user" : USERS + " users",
+                            (double) nanos * threads / ops, ops * 1000.0 / nanos, rejected.get());
+                }
+            }
+        }
+    }
+}
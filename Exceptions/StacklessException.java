@@ -0,0 +1,72 @@
+package Exceptions;
+
+public class StacklessException {
+
+    static class FullException extends RuntimeException {
+        FullException(String message) {
+            super(message);
+        }
+    }
+
+    static class LightException extends RuntimeException {
+        LightException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    static final int DEPTH = 64;
+    static final int ITERATIONS = 200_000;
+
+    static void throwFull(int depth) {
+        if (depth == 0) {
+            throw new FullException("Insufficient balance");
+        }
+        throwFull(depth - 1);
+    }
+
+    static void throwLight(int depth) {
+        if (depth == 0) {
+            throw new LightException("Insufficient balance");
+        }
+        throwLight(depth - 1);
+    }
+
+    static long timeFull() {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            try {
+                throwFull(DEPTH);
+            } catch (FullException e) {
+                // expected
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    static long timeLight() {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            try {
+                throwLight(DEPTH);
+            } catch (LightException e) {
+                // expected
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    public static void main(String[] args) {
+        // Warm up so both paths are JIT compiled before measuring
+        for (int i = 0; i < 5; i++) {
+            timeFull();
+            timeLight();
+        }
+
+        long full = timeFull();
+        long light = timeLight();
+
+        System.out.println("Stack depth: " + DEPTH + ", iterations: " + ITERATIONS);
+        System.out.println("With stack trace:    " + (full / ITERATIONS) + " ns/throw");
+        System.out.println("Without stack trace: " + (light / ITERATIONS) + " ns/throw");
+    }
+}
@@ -0,0 +1,248 @@
+package Gateway;
+
+import com.sun.net.httpserver.HttpServer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gateway auth cost before and after verify-once caching, plain JDK only.
+ *
+ * A stub backend answers "ok". A small proxy in front of it authenticates the
+ * bearer token and forwards the request, the way the api-gateway does:
+ *
+ * before: three full verifications per request (validateToken,
+ *         getEmailFromToken, getUserIdFromToken), each with a new Mac, base64
+ *         decoding and payload parsing.
+ * after:  SHA-256 of the token and a map lookup; the full verification runs
+ *         only the first time a token is seen.
+ *
+ * Prints the auth step on its own and the end-to-end proxy throughput.
+ */
+public class JwtVerifyBenchmark {
+
+    static final byte[] SECRET = "MySecretKeyForJWTTokenGenerationMustBeAtLeast256Bits".getBytes(StandardCharsets.UTF_8);
+    static final int USERS = 1_000;
+    static final int AUTH_ITERATIONS = 300_000;
+    static final int CLIENT_THREADS = 16;
+    static final long HTTP_MILLIS = 5_000;
+
+    record Claims(String userId, String email, long exp) {
+    }
+
+    interface Authenticator {
+        Claims authenticate(String token) throws Exception;
+    }
+
+    static class VerifyEveryTime implements Authenticator {
+        public Claims authenticate(String token) throws Exception {
+            if (verify(token) == null) {
+                return null;
+            }
+            String email = verify(token).email();
+            String userId = verify(token).userId();
+            return new Claims(userId, email, 0);
+        }
+    }
+
+    static class VerifyOnce implements Authenticator {
+        private final Map<String, Claims> cache = new ConcurrentHashMap<>();
+
+        public Claims authenticate(String token) throws Exception {
+            String key = Base64.getEncoder().encodeToString(
+                    MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+            Claims cached = cache.get(key);
+            if (cached != null && cached.exp() > System.currentTimeMillis()) {
+                return cached;
+            }
+            Claims claims = verify(token);
+            if (claims != null) {
+                cache.put(key, claims);
+            }
+            return claims;
+        }
+    }
+
+    static String sign(String userId, String email, long exp) throws Exception {
+        Base64.Encoder b64 = Base64.getUrlEncoder().withoutPadding();
+        String header = b64.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = b64.encodeToString(("{\"sub\":\"" + email + "\",\"userId\":\"" + userId
+                + "\",\"iat\":" + (exp - 1800) + ",\"exp\":" + exp + "}").getBytes(StandardCharsets.UTF_8));
+        return header + "." + payload + "." + b64.encodeToString(hmac(header + "." + payload));
+    }
+
+    static byte[] hmac(String data) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET, "HmacSHA256"));
+        return mac.doFinal(data.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static Claims verify(String token) throws Exception {
+        int first = token.indexOf('.');
+        int second = token.indexOf('.', first + 1);
+        if (first < 0 || second < 0) {
+            return null;
+        }
+        byte[] expected = hmac(token.substring(0, second));
+        byte[] actual = Base64.getUrlDecoder().decode(token.substring(second + 1));
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return null;
+        }
+        String json = new String(Base64.getUrlDecoder().decode(token.substring(first + 1, second)), StandardCharsets.UTF_8);
+        long exp = Long.parseLong(field(json, "exp"));
+        if (exp * 1000 <= System.currentTimeMillis()) {
+            return null;
+        }
+        return new Claims(field(json, "userId"), field(json, "sub"), exp * 1000);
+    }
+
+    static String field(String json, String name) {
+        int start = json.indexOf("\"" + name + "\":") + name.length() + 3;
+        if (json.charAt(start) == '"') {
+            return json.substring(start + 1, json.indexOf('"', start + 1));
+        }
+        int end = start;
+        while (end < json.length() && Character.isDigit(json.charAt(end))) {
+            end++;
+        }
+        return json.substring(start, end);
+    }
+
+    static long timeAuth(Authenticator authenticator, String[] tokens) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < AUTH_ITERATIONS; i++) {
+            if (authenticator.authenticate(tokens[i % tokens.length]) == null) {
+                throw new IllegalStateException("token rejected");
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    static long proxyThroughput(Authenticator authenticator, String[] tokens, int backendPort) throws Exception {
+        HttpClient upstream = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(4))
+                .build();
+        URI backend = URI.create("http://127.0.0.1:" + backendPort + "/ok");
+
+        HttpServer gateway = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        ExecutorService gatewayThreads = Executors.newFixedThreadPool(8);
+        gateway.setExecutor(gatewayThreads);
+        gateway.createContext("/", exchange -> {
+            byte[] body;
+            int status;
+            try {
+                String header = exchange.getRequestHeaders().getFirst("Authorization");
+                Claims claims = header != null ? authenticator.authenticate(header.substring(7)) : null;
+                if (claims == null) {
+                    status = 401;
+                    body = new byte[0];
+                } else {
+                    HttpResponse<byte[]> response = upstream.send(HttpRequest.newBuilder(backend)
+                            .header("X-User-Id", claims.userId())
+                            .header("X-User-Email", claims.email())
+                            .build(), HttpResponse.BodyHandlers.ofByteArray());
+                    status = response.statusCode();
+                    body = response.body();
+                }
+            } catch (Exception e) {
+                status = 502;
+                body = new byte[0];
+            }
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        gateway.start();
+
+        URI target = URI.create("http://127.0.0.1:" + gateway.getAddress().getPort() + "/api/wallets");
+        AtomicLong completed = new AtomicLong();
+        long deadline = System.currentTimeMillis() + HTTP_MILLIS;
+        Thread[] clients = new Thread[CLIENT_THREADS];
+        for (int t = 0; t < CLIENT_THREADS; t++) {
+            int offset = t;
+            clients[t] = new Thread(() -> {
+                HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                int i = offset;
+                while (System.currentTimeMillis() < deadline) {
+                    try {
+                        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(target)
+                                .header("Authorization", "Bearer " + tokens[i++ % tokens.length])
+                                .build(), HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            completed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        return;
+                    }
+                }
+            });
+            clients[t].start();
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+
+        gateway.stop(0);
+        gatewayThreads.shutdownNow();
+        return completed.get() * 1000 / HTTP_MILLIS;
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Without this the JDK server's Nagle/delayed-ACK interaction caps throughput at a few hundred req/s
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        long exp = System.currentTimeMillis() / 1000 + 1800;
+        String[] tokens = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            tokens[i] = sign("00000000-0000-0000-0000-" + String.format("%012d", i), "user" + i + "@example.com", exp);
+        }
+
+        HttpServer backend = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        backend.setExecutor(Executors.newFixedThreadPool(8));
+        backend.createContext("/", exchange -> {
+            byte[] ok = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, ok.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(ok);
+            }
+        });
+        backend.start();
+        int backendPort = backend.getAddress().getPort();
+
+        // Warm up both paths
+        for (int i = 0; i < 3; i++) {
+            timeAuth(new VerifyEveryTime(), tokens);
+            timeAuth(new VerifyOnce(), tokens);
+        }
+
+        long before = timeAuth(new VerifyEveryTime(), tokens);
+        long after = timeAuth(new VerifyOnce(), tokens);
+        System.out.println("Distinct tokens: " + USERS + ", auth calls: " + AUTH_ITERATIONS);
+        System.out.println("Auth step, verify x3:      " + (before / AUTH_ITERATIONS) + " ns/request");
+        System.out.println("Auth step, verify once:    " + (after / AUTH_ITERATIONS) + " ns/request");
+
+        long rpsBefore = proxyThroughput(new VerifyEveryTime(), tokens, backendPort);
+        long rpsAfter = proxyThroughput(new VerifyOnce(), tokens, backendPort);
+        System.out.println("Proxy + stub backend, verify x3:   " + rpsBefore + " req/s");
+        System.out.println("Proxy + stub backend, verify once: " + rpsAfter + " req/s");
+
+        backend.stop(0);
+        System.exit(0);
+    }
+}
@@ -0,0 +1,75 @@
+package Gateway;
+
+import com.example.api_gateway.util.TokenBucket;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-request cost of the gateway RateLimitFilter's hot path: build the bucket
+ * key, look the bucket up and take a token. Uses the gateway's real
+ * TokenBucket; a ConcurrentHashMap stands in for the Caffeine cache.
+ *
+ * Compile together with the gateway class:
+ *   javac -d out Gateway/RateLimiterBenchmark.java \
+ *       Microservice/api-gateway/src/main/java/com/example/api_gateway/util/TokenBucket.java
+ */
+public class RateLimiterBenchmark {
+
+    static final int USERS = 10_000;
+    static final int OPS_PER_THREAD = 2_000_000;
+
+    static long run(int threads, boolean sameUser) throws InterruptedException {
+        Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        AtomicLong allowed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long ok = 0;
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    int user = sameUser ? 0 : (seed * 7919 + i) % USERS;
+                    String key = "user:" + user + '|' + "route:wallet-service";
+                    long now = System.nanoTime();
+                    TokenBucket bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(60, 20, now));
+                    if (bucket.tryAcquire(now) == 0) {
+                        ok++;
+                    }
+                }
+                allowed.addAndGet(ok);
+                done.countDown();
+            }).start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - begin;
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int i = 0; i < 3; i++) {
+            run(1, false);
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[]{1, Math.max(4, cores)}) {
+            for (boolean sameUser : new boolean[]{false, true}) {
+                long nanos = run(threads, sameUser);
+                long ops = (long) threads * OPS_PER_THREAD;
+                System.out.printf("threads=%d %-14s %6.0f ns/request (per thread), %5.1f M checks/s total%n",
+                        threads, sameUser ? "one user" : USERS + " users",
+                        (double) nanos * threads / ops, ops * 1000.0 / nanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package Gateway;
+
+import com.example.api_gateway.util.BloomFilter;
+
+import java.util.UUID;
+
+/**
+ * Size, measured false-positive rate and per-lookup cost of the gateway's
+ * revoked-token BloomFilter at the sizes user_service can be configured for.
+ * Every lookup is for a token id that was never revoked, which is what
+ * nearly every request looks like; only false positives would need the
+ * confirming call to user_service.
+ *
+ * Compile together with the gateway class:
+ *   javac -d out Gateway/RevocationFilterBenchmark.java \
+ *       Microservice/api-gateway/src/main/java/com/example/api_gateway/util/BloomFilter.java
+ */
+public class RevocationFilterBenchmark {
+
+    static final int LOOKUPS = 2_000_000;
+
+    static void run(int revoked, double falsePositiveRate) {
+        BloomFilter filter = BloomFilter.create(revoked, falsePositiveRate, 1024 * 1024);
+        for (int i = 0; i < revoked; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+
+        String[] probes = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            probes[i] = UUID.randomUUID().toString();
+        }
+
+        int positives = 0;
+        long begin = System.nanoTime();
+        for (String probe : probes) {
+            if (filter.mightContain(probe)) {
+                positives++;
+            }
+        }
+        long nanos = System.nanoTime() - begin;
+
+        System.out.printf("revoked=%6d  target=%.4f  %7d bytes, k=%2d  measured fp=%.5f  %5.1f ns/lookup%n",
+                revoked, falsePositiveRate, filter.sizeBytes(), filter.numHashes(),
+                (double) positives / LOOKUPS, (double) nanos / LOOKUPS);
+    }
+
+    public static void main(String[] args) {
+        // Warm-up
+        run(10_000, 0.001);
+
+        for (int revoked : new int[]{1_000, 10_000, 100_000}) {
+            for (double rate : new double[]{0.01, 0.001, 0.0001}) {
+                run(revoked, rate);
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package Logging;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request-thread cost of the E_Wallet auth logging, before and after moving it
+ * to the async, sampled pipeline. Plain JDK only, so the appenders are modelled:
+ *
+ * before: every request concatenates an INFO line with the email and writes it
+ *         synchronously to an autoflushing stream; every 10th request also
+ *         writes a rejected-token WARN.
+ * after:  the INFO line is demoted to DEBUG (disabled, so nothing is built),
+ *         WARN lines are sampled at 10/s and only enqueued into a bounded
+ *         buffer that one background thread drains with buffered writes.
+ */
+public class AsyncLoggingBenchmark {
+
+    static final int THREADS = 8;
+    static final int REQUESTS_PER_THREAD = 200_000;
+    static final int QUEUE_SIZE = 8192;
+    static final int SAMPLES_PER_SECOND = 10;
+
+    interface Pipeline {
+        void onRequest(int i, String email);
+    }
+
+    static class SyncPipeline implements Pipeline {
+        private final PrintStream out;
+
+        SyncPipeline(PrintStream out) {
+            this.out = out;
+        }
+
+        public void onRequest(int i, String email) {
+            synchronized (out) {
+                out.println("INFO  User authenticated successfully: " + email + " with role: USER");
+                if (i % 10 == 0) {
+                    out.println("WARN  JWT token validation failed for email: " + email);
+                }
+            }
+        }
+    }
+
+    static class AsyncSampledPipeline implements Pipeline {
+        private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong suppressed = new AtomicLong();
+        private final boolean debugEnabled = false;
+        private final Thread writerThread;
+        private volatile boolean running = true;
+        private long second;
+        private int admitted;
+
+        AsyncSampledPipeline(Writer sink) {
+            writerThread = new Thread(() -> {
+                try (BufferedWriter writer = new BufferedWriter(sink, 64 * 1024)) {
+                    while (running || !queue.isEmpty()) {
+                        String line = queue.poll();
+                        if (line == null) {
+                            writer.flush();
+                            line = queue.poll(1, TimeUnit.MILLISECONDS);
+                            if (line == null) {
+                                continue;
+                            }
+                        }
+                        writer.write(line);
+                        writer.write('\n');
+                    }
+                } catch (IOException | InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            writerThread.start();
+        }
+
+        public void onRequest(int i, String email) {
+            if (debugEnabled) {
+                enqueue("level=DEBUG event=authenticated role=USER");
+            }
+            if (i % 10 == 0 && admit()) {
+                enqueue("level=WARN event=auth_rejected reason=invalid_token suppressed=" + suppressed.getAndSet(0));
+            }
+        }
+
+        private synchronized boolean admit() {
+            long now = System.currentTimeMillis() / 1000;
+            if (now != second) {
+                second = now;
+                admitted = 0;
+            }
+            if (admitted >= SAMPLES_PER_SECOND) {
+                suppressed.incrementAndGet();
+                return false;
+            }
+            admitted++;
+            return true;
+        }
+
+        private void enqueue(String line) {
+            if (!queue.offer(line)) {
+                dropped.incrementAndGet();
+            }
+        }
+
+        void close() throws InterruptedException {
+            running = false;
+            writerThread.join();
+        }
+    }
+
+    static long run(Pipeline pipeline) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            String email = "user" + t + "@example.com";
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                    pipeline.onRequest(i, email);
+                }
+                done.countDown();
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - begin;
+    }
+
+    public static void main(String[] args) throws Exception {
+        File syncFile = File.createTempFile("sync-log", ".log");
+        File asyncFile = File.createTempFile("async-log", ".log");
+        syncFile.deleteOnExit();
+        asyncFile.deleteOnExit();
+
+        long total = (long) THREADS * REQUESTS_PER_THREAD;
+
+        long before;
+        try (PrintStream out = new PrintStream(new FileOutputStream(syncFile), true, StandardCharsets.UTF_8)) {
+            before = run(new SyncPipeline(out));
+        }
+
+        AsyncSampledPipeline async = new AsyncSampledPipeline(
+                new OutputStreamWriter(new FileOutputStream(asyncFile), StandardCharsets.UTF_8));
+        long after = run(async);
+        async.close();
+
+        System.out.println("Threads: " + THREADS + ", requests: " + total);
+        System.out.println("Sync, concatenated:  " + (total * 1_000_000_000L / before) + " req/s, log "
+                + syncFile.length() / 1024 + " KB");
+        System.out.println("Async, sampled:      " + (total * 1_000_000_000L / after) + " req/s, log "
+                + asyncFile.length() / 1024 + " KB, dropped " + async.dropped.get());
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.api_gateway.config;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+// lb:// routes and the composition's calls are spread over spring.cloud.discovery.client.simple.instances
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LeastLoadedLoadBalancerConfiguration.class)
+public class LoadBalancingConfig {
+}
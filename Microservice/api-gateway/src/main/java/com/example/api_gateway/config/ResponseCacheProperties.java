@@ -0,0 +1,92 @@
+package com.example.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * gateway.response-cache.*: which routes are cached, how much memory the
+ * cache may use, and which resource families a write also invalidates. A
+ * family is the path segment after /api (wallets, transactions).
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+    private List<String> routes = new ArrayList<>(List.of("wallet-service", "transaction-service"));
+    private List<String> excludedPaths = new ArrayList<>();
+    private long maxBytes = 64L * 1024 * 1024;
+    private int maxEntryBytes = 1024 * 1024;
+    private long freshSeconds = 0;
+    private long maxAgeSeconds = 600;
+    private Map<String, List<String>> linkedFamilies = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<String> routes) {
+        this.routes = routes;
+    }
+
+    public List<String> getExcludedPaths() {
+        return excludedPaths;
+    }
+
+    public void setExcludedPaths(List<String> excludedPaths) {
+        this.excludedPaths = excludedPaths;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public void setMaxEntryBytes(int maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public long getFreshSeconds() {
+        return freshSeconds;
+    }
+
+    public void setFreshSeconds(long freshSeconds) {
+        this.freshSeconds = freshSeconds;
+    }
+
+    public long getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+
+    public void setMaxAgeSeconds(long maxAgeSeconds) {
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    public Map<String, List<String>> getLinkedFamilies() {
+        return linkedFamilies;
+    }
+
+    public void setLinkedFamilies(Map<String, List<String>> linkedFamilies) {
+        this.linkedFamilies = linkedFamilies;
+    }
+}
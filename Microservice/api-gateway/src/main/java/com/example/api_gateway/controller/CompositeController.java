@@ -0,0 +1,51 @@
+package com.example.api_gateway.controller;
+
+import com.example.api_gateway.filter.AuthenticationFilter;
+import com.example.api_gateway.service.HomeCompositionService;
+import com.example.api_gateway.util.JwtClaims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Target of the "composite" route (forward:/composite/home), so requests to
+ * /api/composite/home pass the gateway's global filters (authentication, rate
+ * limiting) before reaching it. Called any other way there are no verified
+ * claims on the exchange and the request is rejected.
+ */
+@RestController
+public class CompositeController {
+
+    private static final int MAX_TRANSACTIONS = 50;
+
+    @Autowired
+    private HomeCompositionService homeCompositionService;
+
+    @Value("${gateway.composite.recent-transactions:10}")
+    private int defaultTransactions;
+
+    @GetMapping("/composite/home")
+    public Mono<ResponseEntity<Map<String, Object>>> home(
+            @RequestParam(name = "transactions", required = false) Integer transactions,
+            ServerWebExchange exchange) {
+        JwtClaims claims = exchange.getAttribute(AuthenticationFilter.CLAIMS_ATTR);
+        if (claims == null) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Unauthorized", "status", 401, "message", "Missing or invalid Authorization header")));
+        }
+
+        int count = Math.max(1, Math.min(MAX_TRANSACTIONS, transactions != null ? transactions : defaultTransactions));
+        return homeCompositionService.composeHome(claims, exchange.getRequest(), count)
+                .map(composition -> ResponseEntity
+                        .status(composition.allFailed() ? HttpStatus.BAD_GATEWAY : HttpStatus.OK)
+                        .body(composition.body()));
+    }
+}
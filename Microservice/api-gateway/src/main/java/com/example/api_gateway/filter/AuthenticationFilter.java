@@ -1,6 +1,11 @@
 package com.example.api_gateway.filter;
 
+import com.example.api_gateway.service.TokenRevocationService;
+import com.example.api_gateway.util.ForwardedHeaderSigner;
+import com.example.api_gateway.util.JwtClaims;
 import com.example.api_gateway.util.JwtUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
@@ -20,22 +25,50 @@ import java.util.List;
 @Component
 public class AuthenticationFilter implements GlobalFilter, Ordered {
 
+    // Verified claims for later filters; unlike the X-User-* headers, clients cannot set this
+    public static final String CLAIMS_ATTR = "gateway.jwtClaims";
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private ForwardedHeaderSigner headerSigner;
+
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${gateway.auth.excluded-paths:/api/auth/signup,/api/auth/login,/actuator}")
     private String excludedPathsString;
 
     private List<String> excludedPaths;
 
+    private Counter missingHeaderRejections;
+    private Counter invalidTokenRejections;
+    private Counter missingClaimsRejections;
+    private Counter revokedTokenRejections;
+
     @PostConstruct
     public void init() {
         excludedPaths = Arrays.asList(excludedPathsString.split(","));
+        missingHeaderRejections = meterRegistry.counter("gateway.auth.rejected", "reason", "missing_header");
+        invalidTokenRejections = meterRegistry.counter("gateway.auth.rejected", "reason", "invalid_token");
+        missingClaimsRejections = meterRegistry.counter("gateway.auth.rejected", "reason", "missing_claims");
+        revokedTokenRejections = meterRegistry.counter("gateway.auth.rejected", "reason", "revoked");
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        // Identity headers are only ever set here; anything a client sent is dropped
         ServerHttpRequest request = exchange.getRequest();
+        if (ForwardedHeaderSigner.SIGNED_HEADERS.stream().anyMatch(request.getHeaders()::containsKey)) {
+            request = request.mutate()
+                    .headers(headers -> ForwardedHeaderSigner.SIGNED_HEADERS.forEach(headers::remove))
+                    .build();
+            exchange = exchange.mutate().request(request).build();
+        }
         String path = request.getURI().getPath();
 
         if (isExcludedPath(path)) {
@@ -44,26 +77,53 @@ public class AuthenticationFilter implements GlobalFilter, Ordered {
 
         String authHeader = request.getHeaders().getFirst("Authorization");
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            missingHeaderRejections.increment();
             return onError(exchange, "Missing or invalid Authorization header", HttpStatus.UNAUTHORIZED);
         }
         String token = authHeader.substring(7); // Remove "Bearer " prefix
 
-        if (!jwtUtil.validateToken(token)) {
+        // One verification per distinct token; repeats are served from JwtUtil's cache
+        JwtClaims claims = jwtUtil.verify(token);
+        if (claims == null) {
+            invalidTokenRejections.increment();
             return onError(exchange, "Invalid or expired JWT token", HttpStatus.UNAUTHORIZED);
         }
+        if (claims.email() == null || claims.userId() == null) {
+            missingClaimsRejections.increment();
+            return onError(exchange, "Error processing JWT token: missing claims", HttpStatus.UNAUTHORIZED);
+        }
 
-        try {
-            String email = jwtUtil.getEmailFromToken(token);
-            String userId = jwtUtil.getUserIdFromToken(token);
-            ServerHttpRequest modifiedRequest = request.mutate()
-                    .header("X-User-Email", email)
-                    .header("X-User-Id", userId)
-                    .build();
+        // Bloom filter lookup; only a match (a revoked token or a rare false positive) waits on user-service
+        if (revocationService.mightBeRevoked(claims)) {
+            ServerWebExchange checked = exchange;
+            ServerHttpRequest checkedRequest = request;
+            return revocationService.isRevoked(claims).flatMap(revoked -> {
+                if (revoked) {
+                    revokedTokenRejections.increment();
+                    return onError(checked, "JWT token has been revoked", HttpStatus.UNAUTHORIZED);
+                }
+                return forward(checked, checkedRequest, claims, chain);
+            });
+        }
+        return forward(exchange, request, claims, chain);
+    }
 
-            return chain.filter(exchange.mutate().request(modifiedRequest).build());
-        } catch (Exception e) {
-            return onError(exchange, "Error processing JWT token: " + e.getMessage(), HttpStatus.UNAUTHORIZED);
+    private Mono<Void> forward(ServerWebExchange exchange, ServerHttpRequest request, JwtClaims claims,
+                               GatewayFilterChain chain) {
+        exchange.getAttributes().put(CLAIMS_ATTR, claims);
+        ServerHttpRequest.Builder forwarded = request.mutate()
+                .header(ForwardedHeaderSigner.USER_EMAIL_HEADER, claims.email())
+                .header(ForwardedHeaderSigner.USER_ID_HEADER, claims.userId());
+        if (claims.role() != null) {
+            forwarded.header(ForwardedHeaderSigner.USER_ROLE_HEADER, claims.role());
         }
+        ServerHttpRequest modifiedRequest = forwarded
+                .header(ForwardedHeaderSigner.EXPIRES_HEADER, String.valueOf(claims.expiresAtMillis()))
+                .header(ForwardedHeaderSigner.SIGNATURE_HEADER, headerSigner.sign(
+                        claims.userId(), claims.email(), claims.role(), claims.expiresAtMillis()))
+                .build();
+
+        return chain.filter(exchange.mutate().request(modifiedRequest).build());
     }
 
     private boolean isExcludedPath(String path) {
@@ -83,9 +143,10 @@ public class AuthenticationFilter implements GlobalFilter, Ordered {
         );
     }
 
+    // Ahead of RequestCoalescingFilter, which keys on the verified user
     @Override
     public int getOrder() {
-        return -1;
+        return RequestCoalescingFilter.ORDER - 1;
     }
 }
 
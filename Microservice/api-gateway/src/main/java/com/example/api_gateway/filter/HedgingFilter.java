@@ -0,0 +1,228 @@
+package com.example.api_gateway.filter;
+
+import com.example.api_gateway.util.LatencyTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hedged requests for idempotent GETs on gateway.hedging.routes. The call is
+ * sent once; if no response has arrived after the route's recent p95 latency,
+ * a second identical call is sent and whichever answers first is used, the
+ * other is cancelled. A 5xx does not win; it is only returned if the other
+ * call fails too. Hedges are capped at gateway.hedging.max-percent of
+ * requests so a slow backend never sees double load. Off unless
+ * gateway.hedging.enabled is set.
+ *
+ * Runs just before NettyRoutingFilter and marks the exchange as routed, so
+ * the CircuitBreaker route filter still sees the combined outcome. The
+ * primary goes to the instance ReactiveLoadBalancerClientFilter already
+ * chose. On an lb:// route the hedge is balanced again by service id, so it
+ * counts towards the balancer's outstanding requests and outlier ejection
+ * and can land on another instance.
+ */
+@Component
+public class HedgingFilter implements GlobalFilter, Ordered {
+
+    @Autowired
+    private WebClient.Builder webClientBuilder;
+
+    @Autowired
+    private LoadBalancedExchangeFilterFunction loadBalancerFunction;
+
+    @Autowired
+    private ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gateway.hedging.enabled:false}")
+    private boolean enabled;
+
+    @Value("${gateway.hedging.routes:wallet-service,transaction-service}")
+    private String routesString;
+
+    @Value("${gateway.hedging.initial-delay-ms:200}")
+    private long initialDelayMillis;
+
+    @Value("${gateway.hedging.min-delay-ms:50}")
+    private long minDelayMillis;
+
+    @Value("${gateway.hedging.max-percent:10}")
+    private int maxPercent;
+
+    @Value("${spring.cloud.gateway.httpclient.response-timeout:10s}")
+    private Duration defaultResponseTimeout;
+
+    @Value("${spring.cloud.gateway.httpclient.connect-timeout:45000}")
+    private long defaultConnectTimeoutMillis;
+
+    private Set<String> routes;
+
+    // One client per distinct connect timeout, as NettyRoutingFilter would apply it
+    private final Map<Long, WebClient> webClientByConnectTimeout = new ConcurrentHashMap<>();
+    private final Map<Long, WebClient> loadBalancedWebClientByConnectTimeout = new ConcurrentHashMap<>();
+
+    private final Map<String, LatencyTracker> latencyByRoute = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        routes = new HashSet<>(Arrays.asList(routesString.split(",")));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        if (!enabled || route == null || url == null || !routes.contains(route.getId())
+                || exchange.getRequest().getMethod() != HttpMethod.GET
+                || ServerWebExchangeUtils.isAlreadyRouted(exchange)
+                || !("http".equals(url.getScheme()) || "https".equals(url.getScheme()))) {
+            return chain.filter(exchange);
+        }
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+
+        String routeId = route.getId();
+        LatencyTracker latency = latencyByRoute.computeIfAbsent(routeId, id -> new LatencyTracker());
+        Duration timeout = Duration.ofMillis(metadataMillis(route, "response-timeout", defaultResponseTimeout.toMillis()));
+        long connectTimeoutMillis = metadataMillis(route, "connect-timeout", defaultConnectTimeoutMillis);
+        WebClient webClient = webClient(webClientByConnectTimeout, connectTimeoutMillis, false);
+        boolean balanced = "lb".equals(route.getUri().getScheme());
+        WebClient hedgeClient = balanced
+                ? webClient(loadBalancedWebClientByConnectTimeout, connectTimeoutMillis, true)
+                : webClient;
+        URI hedgeUrl = balanced
+                ? UriComponentsBuilder.fromUri(url).host(route.getUri().getHost()).port(-1).build(true).toUri()
+                : url;
+        long p95 = latency.p95Millis();
+        Duration hedgeDelay = Duration.ofMillis(Math.max(minDelayMillis, p95 > 0 ? p95 : initialDelayMillis));
+        requests.incrementAndGet();
+
+        HttpHeaders headers = HttpHeadersFilter.filterRequest(headersFiltersProvider.getIfAvailable(List::of), exchange);
+        headers.remove(HttpHeaders.HOST);
+
+        long start = System.nanoTime();
+        AtomicReference<ResponseEntity<byte[]>> serverError = new AtomicReference<>();
+        Mono<ResponseEntity<byte[]>> primary = send(webClient, url, headers)
+                .doOnNext(r -> latency.record((System.nanoTime() - start) / 1_000_000))
+                // Cut off by the hedge or the timeout, so it took at least the hedge delay
+                .doOnCancel(() -> latency.record(Math.max((System.nanoTime() - start) / 1_000_000, hedgeDelay.toMillis())))
+                .filter(r -> isUsable(r, serverError));
+        Mono<ResponseEntity<byte[]>> hedge = Mono.delay(hedgeDelay)
+                .filter(tick -> takeHedgeBudget())
+                .flatMap(tick -> {
+                    meterRegistry.counter("gateway.hedge.sent", "routeId", routeId).increment();
+                    return send(hedgeClient, hedgeUrl, headers)
+                            .filter(r -> isUsable(r, serverError))
+                            .doOnNext(r -> meterRegistry.counter("gateway.hedge.won", "routeId", routeId).increment());
+                });
+
+        return Mono.firstWithValue(primary, hedge)
+                .onErrorResume(e -> serverError.get() != null, e -> Mono.just(serverError.get()))
+                .timeout(timeout)
+                .onErrorMap(TimeoutException.class,
+                        e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Response took longer than " + timeout))
+                .flatMap(response -> write(exchange, response));
+    }
+
+    private Mono<ResponseEntity<byte[]>> send(WebClient webClient, URI url, HttpHeaders headers) {
+        return webClient.get()
+                .uri(url)
+                .headers(h -> h.addAll(headers))
+                .exchangeToMono(response -> response.toEntity(byte[].class));
+    }
+
+    // A 5xx is kept as the answer of last resort instead of winning the race
+    private static boolean isUsable(ResponseEntity<byte[]> response, AtomicReference<ResponseEntity<byte[]>> serverError) {
+        if (response.getStatusCode().is5xxServerError()) {
+            serverError.set(response);
+            return false;
+        }
+        return true;
+    }
+
+    private WebClient webClient(Map<Long, WebClient> clients, long connectTimeoutMillis, boolean loadBalanced) {
+        return clients.computeIfAbsent(connectTimeoutMillis, millis -> {
+            WebClient.Builder builder = webClientBuilder.clone()
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create()
+                            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) millis.longValue())));
+            return loadBalanced ? builder.filter(loadBalancerFunction).build() : builder.build();
+        });
+    }
+
+    private boolean takeHedgeBudget() {
+        if (hedges.get() * 100 >= requests.get() * maxPercent) {
+            return false;
+        }
+        hedges.incrementAndGet();
+        return true;
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, ResponseEntity<byte[]> upstream) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(upstream.getStatusCode());
+
+        HttpHeaders filtered = HttpHeadersFilter.filter(headersFiltersProvider.getIfAvailable(List::of),
+                upstream.getHeaders(), exchange, HttpHeadersFilter.Type.RESPONSE);
+        filtered.remove(HttpHeaders.TRANSFER_ENCODING);
+        response.getHeaders().putAll(filtered);
+
+        byte[] body = upstream.getBody() != null ? upstream.getBody() : new byte[0];
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private static long metadataMillis(Route route, String key, long defaultMillis) {
+        Object value = route.getMetadata().get(key);
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value != null) {
+            return Long.parseLong(value.toString());
+        }
+        return defaultMillis;
+    }
+
+    // Immediately ahead of NettyRoutingFilter
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+}
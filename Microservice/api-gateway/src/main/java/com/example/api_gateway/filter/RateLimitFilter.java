@@ -0,0 +1,146 @@
+package com.example.api_gateway.filter;
+
+import com.example.api_gateway.config.RateLimitProperties;
+import com.example.api_gateway.util.JwtClaims;
+import com.example.api_gateway.util.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user token-bucket limits, applied after AuthenticationFilter so the key
+ * is the verified user id (the client address for unauthenticated paths).
+ * Buckets live in memory only: bounded by gateway.rate-limit.max-buckets and
+ * dropped after gateway.rate-limit.idle-evict-seconds without traffic. An
+ * evicted bucket comes back full, which is what an idle client would have had.
+ */
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    private final List<CompiledRule> pathRules = new ArrayList<>();
+    private final Map<String, CompiledRule> routeRules = new HashMap<>();
+    private CompiledRule defaultRule;
+
+    private Cache<String, TokenBucket> buckets;
+
+    @PostConstruct
+    public void init() {
+        PathPatternParser parser = new PathPatternParser();
+        for (RateLimitProperties.PathRule rule : properties.getPaths()) {
+            pathRules.add(new CompiledRule(parser.parse(rule.getPattern()), "path:" + rule.getPattern(), rule));
+        }
+        properties.getRoutes().forEach((routeId, limit) ->
+                routeRules.put(routeId, new CompiledRule(null, "route:" + routeId, limit)));
+        defaultRule = new CompiledRule(null, "default", properties.getDefaultLimit());
+
+        buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(properties.getIdleEvictSeconds(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        CompiledRule rule = resolve(exchange);
+        String key = principal(exchange) + '|' + rule.key;
+        RateLimitProperties.Limit limit = rule.limit;
+
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond(), now));
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos == 0) {
+            return chain.filter(exchange);
+        }
+
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        return tooManyRequests(exchange, retryAfterSeconds);
+    }
+
+    private CompiledRule resolve(ServerWebExchange exchange) {
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        for (CompiledRule rule : pathRules) {
+            if (rule.pattern.matches(path)) {
+                return rule;
+            }
+        }
+
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route != null) {
+            CompiledRule routeRule = routeRules.get(route.getId());
+            if (routeRule != null) {
+                return routeRule;
+            }
+        }
+        return defaultRule;
+    }
+
+    // Never the raw X-User-Id header: on unauthenticated paths the client could set it to anything
+    private String principal(ServerWebExchange exchange) {
+        JwtClaims claims = exchange.getAttribute(AuthenticationFilter.CLAIMS_ATTR);
+        if (claims != null) {
+            return "user:" + claims.userId();
+        }
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        return "ip:" + (remote != null && remote.getAddress() != null ? remote.getAddress().getHostAddress() : "unknown");
+    }
+
+    private Mono<Void> tooManyRequests(ServerWebExchange exchange, long retryAfterSeconds) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        response.setStatusCode(status);
+        response.getHeaders().add("Content-Type", "application/json");
+        response.getHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+
+        String errorBody = String.format("{\"error\": \"%s\", \"status\": %d, \"message\": \"%s\"}",
+                status.getReasonPhrase(), status.value(), "Rate limit exceeded, retry in " + retryAfterSeconds + "s");
+
+        return response.writeWith(
+                Mono.just(response.bufferFactory().wrap(errorBody.getBytes()))
+        );
+    }
+
+    @Override
+    public int getOrder() {
+        return 0;
+    }
+
+    private static final class CompiledRule {
+        final PathPattern pattern;
+        final String key;
+        final RateLimitProperties.Limit limit;
+
+        CompiledRule(PathPattern pattern, String key, RateLimitProperties.Limit limit) {
+            this.pattern = pattern;
+            this.key = key;
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.api_gateway.filter;
+
+import com.example.api_gateway.util.JwtClaims;
+import jakarta.annotation.PostConstruct;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-flight for idempotent GETs on allow-listed routes. While one request
+ * for a given user, path, query and Accept header is in flight downstream,
+ * identical requests wait for it and get a copy of its response instead of
+ * going downstream themselves.
+ *
+ * Nothing is cached: the flight is removed the moment its response is
+ * complete, so a request arriving after that starts a new downstream call.
+ * Waiters fall back to their own downstream call if the leader fails, sends
+ * no body, or its body is larger than gateway.coalescing.max-body-bytes.
+ */
+@Component
+public class RequestCoalescingFilter implements GlobalFilter, Ordered {
+
+    // Must wrap the response before NettyWriteResponseFilter writes it, and run after authentication;
+    // ResponseCacheFilter sits between the two so cached and revalidated responses are shared too
+    public static final int ORDER = ResponseCacheFilter.ORDER - 1;
+
+    private static final Set<String> UNSHARED_HEADERS = Set.of(
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+            HttpHeaders.CONNECTION.toLowerCase());
+
+    @Value("${gateway.coalescing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gateway.coalescing.routes:wallet-service,transaction-service}")
+    private String routesString;
+
+    @Value("${gateway.coalescing.max-waiters:100}")
+    private int maxWaiters;
+
+    @Value("${gateway.coalescing.max-body-bytes:1048576}")
+    private int maxBodyBytes;
+
+    private Set<String> routes;
+
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        routes = new HashSet<>(Arrays.asList(routesString.split(",")));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String key = coalescingKey(exchange);
+        if (key == null) {
+            return chain.filter(exchange);
+        }
+
+        Flight flight = new Flight();
+        Flight existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            if (existing.waiters.incrementAndGet() > maxWaiters) {
+                return chain.filter(exchange);
+            }
+            return existing.result.asMono()
+                    .flatMap(shared -> writeShared(exchange.getResponse(), shared))
+                    .switchIfEmpty(Mono.defer(() -> chain.filter(exchange)));
+        }
+
+        ServerHttpResponse capturing = new CapturingResponse(exchange.getResponse(), key, flight);
+        return chain.filter(exchange.mutate().response(capturing).build())
+                .doFinally(signal -> {
+                    // No shareable body was seen (error, empty body, cancel): waiters go downstream themselves
+                    inFlight.remove(key, flight);
+                    flight.result.tryEmitEmpty();
+                });
+    }
+
+    private String coalescingKey(ServerWebExchange exchange) {
+        if (!enabled) {
+            return null;
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET) {
+            return null;
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        JwtClaims claims = exchange.getAttribute(AuthenticationFilter.CLAIMS_ATTR);
+        if (route == null || claims == null || !routes.contains(route.getId())) {
+            return null;
+        }
+        String query = request.getURI().getRawQuery();
+        String accept = request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+        // A conditional request may be answered with a bodiless 304, which only fits identical conditions
+        String ifNoneMatch = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        return claims.userId() + '|' + request.getURI().getRawPath()
+                + '?' + (query != null ? query : "") + '|' + (accept != null ? accept : "")
+                + '|' + (ifNoneMatch != null ? ifNoneMatch : "");
+    }
+
+    private Mono<Void> writeShared(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.status);
+        shared.headers.forEach((name, values) -> response.getHeaders().put(name, new ArrayList<>(values)));
+        response.getHeaders().setContentLength(shared.body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body)));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private final class CapturingResponse extends ServerHttpResponseDecorator {
+        private final String key;
+        private final Flight flight;
+
+        CapturingResponse(ServerHttpResponse delegate, String key, Flight flight) {
+            super(delegate);
+            this.key = key;
+            this.flight = flight;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                inFlight.remove(key, flight);
+                if (bytes.length <= maxBodyBytes) {
+                    flight.result.tryEmitValue(new SharedResponse(getStatusCode(), copyHeaders(getHeaders()), bytes));
+                } else {
+                    flight.result.tryEmitEmpty();
+                }
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).flatMapSequential(p -> p));
+        }
+
+        private HttpHeaders copyHeaders(HttpHeaders source) {
+            HttpHeaders copy = new HttpHeaders();
+            source.forEach((name, values) -> {
+                if (!UNSHARED_HEADERS.contains(name.toLowerCase())) {
+                    copy.put(name, new ArrayList<>(values));
+                }
+            });
+            return copy;
+        }
+    }
+
+    private static final class Flight {
+        final Sinks.One<SharedResponse> result = Sinks.one();
+        final AtomicInteger waiters = new AtomicInteger();
+    }
+
+    private static final class SharedResponse {
+        final HttpStatusCode status;
+        final HttpHeaders headers;
+        final byte[] body;
+
+        SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+}
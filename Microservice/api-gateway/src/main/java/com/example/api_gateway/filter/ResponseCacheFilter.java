@@ -0,0 +1,298 @@
+package com.example.api_gateway.filter;
+
+import com.example.api_gateway.config.ResponseCacheProperties;
+import com.example.api_gateway.util.JwtClaims;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in response cache for GETs on gateway.response-cache.routes, keyed by
+ * user, path, query and Accept. Only 200 responses that carry an ETag
+ * (wallet-service and transaction-service add one) and a known length are
+ * stored. The cache is bounded by total body bytes, not entry count.
+ *
+ * A stored response is served without going downstream while it is younger
+ * than fresh-seconds. After that the request goes downstream with
+ * If-None-Match, and a 304 is answered from the cache, so only headers cross
+ * the network. A client's own If-None-Match is honoured the same way.
+ *
+ * A POST, PUT, PATCH or DELETE from a user invalidates that user's entries in
+ * the resource family of the path (/api/wallets/... is "wallets") and in its
+ * linked families. This is done by moving the family to a new generation,
+ * which is part of every key, both before and after the write, so a read that
+ * overlaps the write cannot store what it saw under the new generation.
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    // Innermost response decorator: sees the downstream 304 before coalescing shares the response
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private static final Set<String> UNSTORED_HEADERS = Set.of(
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+            HttpHeaders.CONNECTION.toLowerCase(),
+            HttpHeaders.SET_COOKIE.toLowerCase(),
+            HttpHeaders.DATE.toLowerCase());
+
+    // Key and bookkeeping bytes charged per entry on top of headers and body
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    @Autowired
+    private ResponseCacheProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Set<String> routes;
+
+    private Cache<String, CachedResponse> responses;
+
+    private Cache<String, Long> generations;
+
+    private final AtomicLong generationSequence = new AtomicLong();
+
+    private Counter freshHits;
+    private Counter revalidatedHits;
+    private Counter misses;
+    private Counter bytesSaved;
+
+    @PostConstruct
+    public void init() {
+        routes = new HashSet<>(properties.getRoutes());
+
+        responses = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxBytes())
+                .weigher((String key, CachedResponse response) -> key.length() * 2 + response.weight())
+                .expireAfterWrite(properties.getMaxAgeSeconds(), TimeUnit.SECONDS)
+                .build();
+
+        // Outlives every entry written under it, so an expired generation can never revive stale entries
+        generations = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getMaxAgeSeconds() * 2, TimeUnit.SECONDS)
+                .build();
+
+        freshHits = meterRegistry.counter("gateway.cache.requests", "result", "fresh");
+        revalidatedHits = meterRegistry.counter("gateway.cache.requests", "result", "revalidated");
+        misses = meterRegistry.counter("gateway.cache.requests", "result", "miss");
+        bytesSaved = Counter.builder("gateway.cache.bytes.saved")
+                .baseUnit("bytes")
+                .description("Response bytes not transferred from downstream services")
+                .register(meterRegistry);
+        Gauge.builder("gateway.cache.hit.ratio", this, ResponseCacheFilter::hitRatio).register(meterRegistry);
+        Gauge.builder("gateway.cache.size", responses, c -> c.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0))
+                        .orElse(0L))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        JwtClaims claims = exchange.getAttribute(AuthenticationFilter.CLAIMS_ATTR);
+        if (!properties.isEnabled() || claims == null) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        String family = family(request.getURI().getRawPath());
+        HttpMethod method = request.getMethod();
+        if (method == HttpMethod.POST || method == HttpMethod.PUT
+                || method == HttpMethod.PATCH || method == HttpMethod.DELETE) {
+            if (family == null) {
+                return chain.filter(exchange);
+            }
+            invalidate(claims.userId(), family);
+            return chain.filter(exchange).doFinally(signal -> invalidate(claims.userId(), family));
+        }
+
+        if (method != HttpMethod.GET || family == null || !cacheable(exchange)) {
+            return chain.filter(exchange);
+        }
+
+        String key = cacheKey(claims.userId(), family, request);
+        String clientTag = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        CachedResponse cached = responses.getIfPresent(key);
+
+        if (cached != null && System.nanoTime() - cached.validatedAt < TimeUnit.SECONDS.toNanos(properties.getFreshSeconds())) {
+            freshHits.increment();
+            bytesSaved.increment(cached.body.length);
+            return writeCached(exchange.getResponse(), cached, clientTag);
+        }
+
+        ServerHttpRequest forwarded = cached == null ? request
+                : request.mutate().headers(headers -> headers.set(HttpHeaders.IF_NONE_MATCH, cached.etag)).build();
+        ServerHttpResponse caching = new CachingResponse(exchange.getResponse(), key, cached, clientTag);
+        return chain.filter(exchange.mutate().request(forwarded).response(caching).build());
+    }
+
+    private boolean cacheable(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null || !routes.contains(route.getId())) {
+            return false;
+        }
+        String path = exchange.getRequest().getURI().getRawPath();
+        return properties.getExcludedPaths().stream().noneMatch(path::startsWith);
+    }
+
+    // "/api/wallets/with-balance" -> "wallets"
+    private static String family(String path) {
+        if (!path.startsWith("/api/")) {
+            return null;
+        }
+        int end = path.indexOf('/', 5);
+        String family = end < 0 ? path.substring(5) : path.substring(5, end);
+        return family.isEmpty() ? null : family;
+    }
+
+    private String cacheKey(String userId, String family, ServerHttpRequest request) {
+        Long generation = generations.getIfPresent(userId + '|' + family);
+        String query = request.getURI().getRawQuery();
+        String accept = request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+        return userId + '|' + family + '#' + (generation != null ? generation : 0) + '|'
+                + request.getURI().getRawPath() + '?' + (query != null ? query : "")
+                + '|' + (accept != null ? accept : "");
+    }
+
+    private void invalidate(String userId, String family) {
+        long generation = generationSequence.incrementAndGet();
+        generations.put(userId + '|' + family, generation);
+        for (String linked : properties.getLinkedFamilies().getOrDefault(family, List.of())) {
+            generations.put(userId + '|' + linked, generation);
+        }
+    }
+
+    private Mono<Void> writeCached(ServerHttpResponse response, CachedResponse cached, String clientTag) {
+        if (cached.etag.equals(clientTag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().setETag(cached.etag);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        cached.headers.forEach((name, values) -> response.getHeaders().put(name, new ArrayList<>(values)));
+        response.getHeaders().setContentLength(cached.body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body)));
+    }
+
+    private double hitRatio() {
+        double hits = freshHits.count() + revalidatedHits.count();
+        double total = hits + misses.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private final class CachingResponse extends ServerHttpResponseDecorator {
+        private final String key;
+        private final CachedResponse cached;
+        private final String clientTag;
+
+        CachingResponse(ServerHttpResponse delegate, String key, CachedResponse cached, String clientTag) {
+            super(delegate);
+            this.key = key;
+            this.cached = cached;
+            this.clientTag = clientTag;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (cached != null && status != null && status.value() == HttpStatus.NOT_MODIFIED.value()) {
+                cached.validatedAt = System.nanoTime();
+                revalidatedHits.increment();
+                bytesSaved.increment(cached.body.length);
+                return Flux.from(body).doOnNext(DataBufferUtils::release)
+                        .then(Mono.defer(() -> writeCached(getDelegate(), cached, clientTag)));
+            }
+
+            misses.increment();
+            String etag = getHeaders().getETag();
+            long length = getHeaders().getContentLength();
+            if (status == null || status.value() != HttpStatus.OK.value() || etag == null || length < 0 || length > properties.getMaxEntryBytes()) {
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                responses.put(key, new CachedResponse(etag, copyHeaders(getHeaders()), bytes));
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).flatMapSequential(p -> p));
+        }
+
+        private HttpHeaders copyHeaders(HttpHeaders source) {
+            HttpHeaders copy = new HttpHeaders();
+            source.forEach((name, values) -> {
+                if (!UNSTORED_HEADERS.contains(name.toLowerCase())) {
+                    copy.put(name, new ArrayList<>(values));
+                }
+            });
+            return copy;
+        }
+    }
+
+    private static final class CachedResponse {
+        final String etag;
+        final HttpHeaders headers;
+        final byte[] body;
+        volatile long validatedAt = System.nanoTime();
+
+        CachedResponse(String etag, HttpHeaders headers, byte[] body) {
+            this.etag = etag;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        int weight() {
+            int headerBytes = 0;
+            for (var entry : headers.entrySet()) {
+                for (String value : entry.getValue()) {
+                    headerBytes += entry.getKey().length() + value.length();
+                }
+            }
+            return ENTRY_OVERHEAD_BYTES + headerBytes + body.length;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.api_gateway.filter;
+
+import com.example.api_gateway.util.HistogramMeters;
+import com.example.api_gateway.util.JwtClaims;
+import com.example.api_gateway.util.LatencyHistogram;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Outermost filter: per-route latency histograms (total by status class,
+ * upstream, gateway overhead), in-flight gauges, and one compact access log
+ * line per request on the "gateway.access" logger, which logback-spring.xml
+ * sends through an async appender.
+ *
+ * Meters for a route are created once, on its first request; after that a
+ * request costs a map lookup, two counter updates and a few histogram
+ * increments (see Gateway/MetricsRecordingBenchmark).
+ */
+@Component
+public class RouteMetricsFilter implements GlobalFilter, Ordered {
+
+    public static final String UPSTREAM_NANOS_ATTR = "gateway.upstreamNanos";
+
+    private static final Logger accessLog = LoggerFactory.getLogger("gateway.access");
+
+    // Client went away before a response; the nginx convention
+    private static final int CLIENT_CLOSED_REQUEST = 499;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gateway.metrics.interval-seconds:60}")
+    private long intervalSeconds;
+
+    @Value("${gateway.access-log.enabled:true}")
+    private boolean accessLogEnabled;
+
+    private final Map<String, RouteStats> statsByRoute = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "none";
+        RouteStats stats = statsByRoute.computeIfAbsent(routeId, RouteStats::new);
+        stats.inFlight.incrementAndGet();
+
+        return chain.filter(exchange)
+                .doOnSuccess(done -> complete(exchange, stats, start, responseStatus(exchange, 200)))
+                .doOnError(e -> complete(exchange, stats, start, errorStatus(exchange, e)))
+                .doOnCancel(() -> complete(exchange, stats, start, CLIENT_CLOSED_REQUEST));
+    }
+
+    private void complete(ServerWebExchange exchange, RouteStats stats, long start, int status) {
+        long totalNanos = System.nanoTime() - start;
+        stats.inFlight.decrementAndGet();
+        stats.total(status).recordNanos(totalNanos);
+
+        Long upstreamNanos = exchange.getAttribute(UPSTREAM_NANOS_ATTR);
+        if (upstreamNanos != null) {
+            stats.upstream.recordNanos(upstreamNanos);
+            stats.overhead.recordNanos(totalNanos - upstreamNanos);
+        }
+
+        if (accessLogEnabled && accessLog.isInfoEnabled()) {
+            JwtClaims claims = exchange.getAttribute(AuthenticationFilter.CLAIMS_ATTR);
+            accessLog.info("{} {} {} {} {}us up={}us user={}",
+                    exchange.getRequest().getMethod(),
+                    exchange.getRequest().getURI().getRawPath(),
+                    status,
+                    stats.routeId,
+                    totalNanos / 1_000,
+                    upstreamNanos != null ? upstreamNanos / 1_000 : "-",
+                    claims != null ? claims.userId() : "-");
+        }
+    }
+
+    private static int responseStatus(ServerWebExchange exchange, int fallback) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null ? status.value() : fallback;
+    }
+
+    // The error handler sets the response status after this filter has finished
+    private static int errorStatus(ServerWebExchange exchange, Throwable e) {
+        if (e instanceof ResponseStatusException statusException) {
+            return statusException.getStatusCode().value();
+        }
+        int status = responseStatus(exchange, 500);
+        return status >= 400 ? status : 500;
+    }
+
+    private final class RouteStats {
+        final String routeId;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final LatencyHistogram upstream;
+        final LatencyHistogram overhead;
+        // Indexed by status class (1xx..5xx); created on the first response in each class
+        private final AtomicReferenceArray<LatencyHistogram> totalByClass = new AtomicReferenceArray<>(6);
+
+        RouteStats(String routeId) {
+            this.routeId = routeId;
+            Tags tags = Tags.of("routeId", routeId);
+            Gauge.builder("gateway.requests.in_flight", inFlight, AtomicInteger::get)
+                    .tags(tags)
+                    .register(meterRegistry);
+            this.upstream = HistogramMeters.register(meterRegistry, "gateway.route.upstream", tags, interval());
+            this.overhead = HistogramMeters.register(meterRegistry, "gateway.route.overhead", tags, interval());
+        }
+
+        LatencyHistogram total(int status) {
+            int statusClass = Math.min(5, Math.max(1, status / 100));
+            LatencyHistogram histogram = totalByClass.get(statusClass);
+            if (histogram == null) {
+                synchronized (this) {
+                    histogram = totalByClass.get(statusClass);
+                    if (histogram == null) {
+                        histogram = HistogramMeters.register(meterRegistry, "gateway.route.latency",
+                                Tags.of("routeId", routeId, "status", statusClass + "xx"), interval());
+                        totalByClass.set(statusClass, histogram);
+                    }
+                }
+            }
+            return histogram;
+        }
+    }
+
+    private Duration interval() {
+        return Duration.ofSeconds(intervalSeconds);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.api_gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times the routing step for RouteMetricsFilter. For proxied routes the inner
+ * chain completes when the backend's response headers arrive, so this is the
+ * upstream time to first byte; what remains of the total is gateway overhead
+ * plus streaming the body back.
+ */
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> exchange.getAttributes()
+                .put(RouteMetricsFilter.UPSTREAM_NANOS_ATTR, System.nanoTime() - start));
+    }
+
+    // Outside HedgingFilter, so a hedged request is timed as a whole
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 2;
+    }
+}
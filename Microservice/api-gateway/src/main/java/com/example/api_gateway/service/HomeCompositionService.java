@@ -0,0 +1,166 @@
+package com.example.api_gateway.service;
+
+import com.example.api_gateway.util.ForwardedHeaderSigner;
+import com.example.api_gateway.util.JwtClaims;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Builds the home view (profile, wallets with balances, recent transactions)
+ * from the three services in parallel, so the response takes as long as the
+ * slowest branch rather than the sum of all three.
+ *
+ * Each branch goes straight to its route's backend with the caller's signed
+ * identity headers, through the route's circuit breaker and with its own
+ * timeout. A failed branch does not fail the response: it is reported under
+ * "errors" and the response is marked "partial".
+ */
+@Service
+public class HomeCompositionService {
+
+    public record Composition(Map<String, Object> body, boolean allFailed) {
+    }
+
+    @Autowired
+    private WebClient.Builder webClientBuilder;
+
+    @Autowired
+    private RouteLocator routeLocator;
+
+    @Autowired
+    private ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory;
+
+    @Autowired
+    private LoadBalancedExchangeFilterFunction loadBalancerFunction;
+
+    @Value("${gateway.composite.branch-timeout-ms:2000}")
+    private long branchTimeoutMillis;
+
+    private WebClient webClient;
+
+    private WebClient loadBalancedWebClient;
+
+    @PostConstruct
+    public void init() {
+        webClient = webClientBuilder.clone().build();
+        loadBalancedWebClient = webClientBuilder.clone().filter(loadBalancerFunction).build();
+    }
+
+    public Mono<Composition> composeHome(JwtClaims claims, ServerHttpRequest request, int transactionCount) {
+        HttpHeaders headers = forwardedHeaders(request);
+
+        Mono<Branch> user = branch("user", "user-service", "/users/" + claims.userId(), null, headers);
+        Mono<Branch> wallets = branch("wallets", "wallet-service", "/wallets/with-balance", null, headers);
+        Mono<Branch> transactions = branch("transactions", "transaction-service", "/transactions",
+                "page=0&size=" + transactionCount, headers);
+
+        // Branches never error (failures become markers), so zip waits for all three
+        return Mono.zip(user, wallets, transactions).map(results -> {
+            Map<String, Object> body = new LinkedHashMap<>();
+            Map<String, Object> errors = new LinkedHashMap<>();
+            for (Branch branch : new Branch[]{results.getT1(), results.getT2(), results.getT3()}) {
+                body.put(branch.name(), branch.data());
+                if (branch.error() != null) {
+                    errors.put(branch.name(), branch.error());
+                }
+            }
+            body.put("partial", !errors.isEmpty());
+            if (!errors.isEmpty()) {
+                body.put("errors", errors);
+            }
+            return new Composition(body, errors.size() == 3);
+        });
+    }
+
+    private record Branch(String name, JsonNode data, Map<String, Object> error) {
+    }
+
+    private Mono<Branch> branch(String name, String routeId, String path, String query, HttpHeaders headers) {
+        long start = System.nanoTime();
+        Mono<Branch> call = backendUri(routeId, path, query)
+                .switchIfEmpty(Mono.error(new IllegalStateException("No route " + routeId)))
+                .flatMap(uri -> get(uri, headers))
+                .timeout(Duration.ofMillis(branchTimeoutMillis))
+                .map(data -> new Branch(name, data, null))
+                // A 4xx is the caller's problem, not the backend's, so it is reported without tripping the breaker
+                .onErrorResume(WebClientResponseException.class, e -> e.getStatusCode().is4xxClientError()
+                        ? Mono.just(failed(name, e, (System.nanoTime() - start) / 1_000_000))
+                        : Mono.error(e));
+
+        return circuitBreakerFactory.create(routeId)
+                .run(call, e -> Mono.just(failed(name, e, (System.nanoTime() - start) / 1_000_000)));
+    }
+
+    private Branch failed(String name, Throwable e, long elapsedMillis) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        if (e instanceof WebClientResponseException responseException) {
+            error.put("status", responseException.getStatusCode().value());
+            error.put("message", "Downstream returned " + responseException.getStatusCode().value());
+        } else if (e instanceof TimeoutException) {
+            error.put("status", 504);
+            error.put("message", "Timed out after " + branchTimeoutMillis + " ms");
+        } else if (e instanceof IllegalStateException) {
+            error.put("status", 502);
+            error.put("message", e.getMessage());
+        } else {
+            error.put("status", 503);
+            error.put("message", "Service unavailable");
+        }
+        error.put("elapsedMs", elapsedMillis);
+        return new Branch(name, null, error);
+    }
+
+    // Same backend the route would proxy to, so the composition follows route changes
+    private Mono<URI> backendUri(String routeId, String path, String query) {
+        return routeLocator.getRoutes()
+                .filter(route -> routeId.equals(route.getId()))
+                .next()
+                .map(Route::getUri)
+                .map(base -> UriComponentsBuilder.fromUri(base).path(path).query(query).build().encode().toUri());
+    }
+
+    // lb://service goes through the same balancer as the route, with the service id as the host
+    private Mono<JsonNode> get(URI uri, HttpHeaders headers) {
+        boolean loadBalanced = "lb".equals(uri.getScheme());
+        return (loadBalanced ? loadBalancedWebClient : webClient).get()
+                .uri(loadBalanced ? UriComponentsBuilder.fromUri(uri).scheme("http").build(true).toUri() : uri)
+                .headers(h -> h.addAll(headers))
+                .retrieve()
+                .bodyToMono(JsonNode.class);
+    }
+
+    private HttpHeaders forwardedHeaders(ServerHttpRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        // user-service authenticates with the bearer token itself; the others trust the signed headers
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization != null) {
+            headers.set(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        for (String name : ForwardedHeaderSigner.SIGNED_HEADERS) {
+            String value = request.getHeaders().getFirst(name);
+            if (value != null) {
+                headers.set(name, value);
+            }
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.api_gateway.service;
+
+import com.example.api_gateway.util.BloomFilter;
+import com.example.api_gateway.util.JwtClaims;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Revoked-token check against a local copy of user_service's bloom filter of
+ * revoked token ids. mightBeRevoked is a few hashes and bit reads, so a token
+ * that was never revoked (nearly every request) costs no call. A match is
+ * confirmed with user_service once and the answer cached.
+ *
+ * The filter is fetched as a snapshot every snapshot-refresh-ms; in between,
+ * ids revoked after the snapshot's sequence are polled every delta-poll-ms
+ * and added to it, so a logout takes effect here within one poll. Each delta
+ * also repeats ids revoked shortly before the sequence, which covers
+ * revocations committed out of id order. Until the first snapshot has loaded
+ * nothing is treated as revoked.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    @Autowired
+    private WebClient.Builder webClientBuilder;
+
+    @Autowired
+    private LoadBalancedExchangeFilterFunction loadBalancerFunction;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gateway.revocation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gateway.revocation.user-service-url:http://user-service}")
+    private String userServiceUrl;
+
+    @Value("${gateway.revocation.delta-poll-ms:2000}")
+    private long deltaPollMillis;
+
+    @Value("${gateway.revocation.snapshot-refresh-ms:300000}")
+    private long snapshotRefreshMillis;
+
+    @Value("${gateway.revocation.confirm-timeout-ms:1000}")
+    private long confirmTimeoutMillis;
+
+    private WebClient webClient;
+
+    private volatile RevocationState state;
+
+    private long snapshotLoadedAt;
+
+    // Confirmed answers by token id. An entry is dropped when its id shows up in a delta, and
+    // the whole cache is cleared when a new snapshot replaces the old one, since a revocation
+    // missed by the deltas only reaches this gateway through the next snapshot
+    private Cache<String, Boolean> confirmed;
+
+    private Disposable polling;
+
+    private Counter revokedChecks;
+    private Counter falsePositiveChecks;
+    private Counter unconfirmedChecks;
+
+    @PostConstruct
+    public void init() {
+        webClient = webClientBuilder.clone().baseUrl(userServiceUrl).filter(loadBalancerFunction).build();
+        confirmed = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(snapshotRefreshMillis, TimeUnit.MILLISECONDS)
+                .build();
+
+        revokedChecks = meterRegistry.counter("gateway.auth.revocation.checks", "result", "revoked");
+        falsePositiveChecks = meterRegistry.counter("gateway.auth.revocation.checks", "result", "false_positive");
+        unconfirmedChecks = meterRegistry.counter("gateway.auth.revocation.checks", "result", "unconfirmed");
+        Gauge.builder("gateway.auth.revocation.filter.size", this,
+                        service -> service.state != null ? service.state.filter.sizeBytes() : 0)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("gateway.auth.revocation.sequence", this,
+                        service -> service.state != null ? service.state.sequence.get() : 0)
+                .register(meterRegistry);
+
+        if (enabled) {
+            // One refresh at a time; a tick that arrives while one is running is skipped
+            polling = Flux.interval(Duration.ZERO, Duration.ofMillis(deltaPollMillis))
+                    .onBackpressureDrop()
+                    .concatMap(tick -> refresh()
+                            .onErrorResume(e -> {
+                                logger.warn("Could not refresh revoked tokens: {}", e.getMessage());
+                                return Mono.empty();
+                            }))
+                    .subscribe();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (polling != null) {
+            polling.dispose();
+        }
+    }
+
+    /**
+     * False means the token is certainly not revoked; true means it has to be
+     * confirmed with isRevoked.
+     */
+    public boolean mightBeRevoked(JwtClaims claims) {
+        RevocationState current = state;
+        return enabled && current != null && claims.tokenId() != null
+                && current.filter.mightContain(claims.tokenId());
+    }
+
+    public Mono<Boolean> isRevoked(JwtClaims claims) {
+        String tokenId = claims.tokenId();
+        Boolean known = confirmed.getIfPresent(tokenId);
+        if (known != null) {
+            return Mono.just(known);
+        }
+        return webClient.get()
+                .uri("/internal/revocations/{tokenId}", tokenId)
+                .retrieve()
+                .bodyToMono(Confirmation.class)
+                .timeout(Duration.ofMillis(confirmTimeoutMillis))
+                .map(confirmation -> {
+                    confirmed.put(tokenId, confirmation.revoked());
+                    (confirmation.revoked() ? revokedChecks : falsePositiveChecks).increment();
+                    return confirmation.revoked();
+                })
+                // The filter has no false negatives, so a match that cannot be confirmed is treated as revoked
+                .onErrorResume(e -> {
+                    logger.warn("Could not confirm revocation of token {}: {}", tokenId, e.getMessage());
+                    unconfirmedChecks.increment();
+                    return Mono.just(true);
+                });
+    }
+
+    private Mono<Void> refresh() {
+        RevocationState current = state;
+        if (current == null || System.nanoTime() - snapshotLoadedAt > TimeUnit.MILLISECONDS.toNanos(snapshotRefreshMillis)) {
+            long start = System.nanoTime();
+            // The new snapshot is brought up to date before it replaces the old one
+            return loadSnapshot()
+                    .flatMap(this::applyDelta)
+                    .doOnNext(loaded -> {
+                        state = loaded;
+                        snapshotLoadedAt = start;
+                        confirmed.invalidateAll();
+                    })
+                    .then();
+        }
+        return applyDelta(current).then();
+    }
+
+    private Mono<RevocationState> loadSnapshot() {
+        return webClient.get()
+                .uri("/internal/revocations/snapshot")
+                .retrieve()
+                .bodyToMono(Snapshot.class)
+                .map(snapshot -> new RevocationState(
+                        BloomFilter.fromBytes(Base64.getDecoder().decode(snapshot.bits()),
+                                snapshot.numBits(), snapshot.numHashes()),
+                        snapshot.sequence()));
+    }
+
+    private Mono<RevocationState> applyDelta(RevocationState target) {
+        return webClient.get()
+                .uri(uri -> uri.path("/internal/revocations").queryParam("after", target.sequence.get()).build())
+                .retrieve()
+                .bodyToMono(Delta.class)
+                .map(delta -> {
+                    for (String tokenId : delta.tokenIds()) {
+                        target.filter.put(tokenId);
+                        confirmed.invalidate(tokenId);
+                    }
+                    target.sequence.set(delta.sequence());
+                    return target;
+                });
+    }
+
+    private static final class RevocationState {
+        final BloomFilter filter;
+        final AtomicLong sequence;
+
+        RevocationState(BloomFilter filter, long sequence) {
+            this.filter = filter;
+            this.sequence = new AtomicLong(sequence);
+        }
+    }
+
+    record Snapshot(long sequence, int numBits, int numHashes, String bits) {
+    }
+
+    record Delta(long sequence, List<String> tokenIds) {
+    }
+
+    record Confirmation(boolean revoked) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.api_gateway.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over strings (revoked token ids). mightContain never returns
+ * false for a value that was put; it returns true for a value that was not
+ * put with roughly the false-positive rate the filter was sized for.
+ *
+ * user_service builds the filter and ships it as toBytes() plus numBits and
+ * numHashes, so the bit layout and hashing here must stay identical to
+ * user_service's com.example.Util.BloomFilter. Safe for concurrent put and
+ * mightContain.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final int numBits;
+    private final int numHashes;
+
+    public BloomFilter(int numBits, int numHashes) {
+        if (numBits <= 0 || numHashes <= 0) {
+            throw new IllegalArgumentException("numBits and numHashes must be positive");
+        }
+        this.words = new AtomicLongArray((numBits + 63) >>> 6);
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+    }
+
+    /**
+     * Sized for expectedInsertions at falsePositiveRate, but never larger than
+     * maxBytes; past that cap the false-positive rate is what it is.
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate, long maxBytes) {
+        long n = Math.max(1, expectedInsertions);
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+        bits = Math.max(64, Math.min(bits, Math.min(maxBytes * 8, Integer.MAX_VALUE - 63)));
+        int hashes = (int) Math.max(1, Math.min(16, Math.round((double) bits / n * ln2)));
+        return new BloomFilter((int) bits, hashes);
+    }
+
+    public static BloomFilter fromBytes(byte[] bytes, int numBits, int numHashes) {
+        BloomFilter filter = new BloomFilter(numBits, numHashes);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int i = 0; i < filter.words.length() && buffer.remaining() >= Long.BYTES; i++) {
+            filter.words.set(i, buffer.getLong());
+        }
+        return filter;
+    }
+
+    public void put(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = index(h1 + i * h2);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = index(h1 + i * h2);
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length() * Long.BYTES);
+        for (int i = 0; i < words.length(); i++) {
+            buffer.putLong(words.get(i));
+        }
+        return buffer.array();
+    }
+
+    public int numBits() {
+        return numBits;
+    }
+
+    public int numHashes() {
+        return numHashes;
+    }
+
+    public int sizeBytes() {
+        return words.length() * Long.BYTES;
+    }
+
+    private int index(int combined) {
+        return Math.floorMod(combined, numBits);
+    }
+
+    // FNV-1a over the UTF-8 bytes, then the murmur3 finaliser so both halves are well mixed
+    private static long hash64(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+}
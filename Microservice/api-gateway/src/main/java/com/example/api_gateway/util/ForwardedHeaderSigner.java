@@ -0,0 +1,60 @@
+package com.example.api_gateway.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Signs the X-User-* headers the gateway forwards: HMAC-SHA256 with the shared
+ * secret over user id, email, role and the token's expiry, one per line.
+ */
+@Component
+public class ForwardedHeaderSigner {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_EMAIL_HEADER = "X-User-Email";
+    public static final String USER_ROLE_HEADER = "X-User-Role";
+    public static final String EXPIRES_HEADER = "X-User-Expires";
+    public static final String SIGNATURE_HEADER = "X-User-Signature";
+
+    public static final List<String> SIGNED_HEADERS = List.of(
+            USER_ID_HEADER, USER_EMAIL_HEADER, USER_ROLE_HEADER, EXPIRES_HEADER, SIGNATURE_HEADER);
+
+    @Value("${security.forwarded-headers.secret:MyForwardedHeaderSigningKeyMustMatchAcrossAllServices}")
+    private String secret;
+
+    private SecretKeySpec key;
+
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    @PostConstruct
+    public void init() {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    public String sign(String userId, String email, String role, long expiresAtMillis) {
+        String payload = (userId != null ? userId : "") + '\n'
+                + (email != null ? email : "") + '\n'
+                + (role != null ? role : "") + '\n'
+                + expiresAtMillis;
+        byte[] mac = macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to initialize forwarded header signing", e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.api_gateway.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes a LatencyHistogram through Micrometer: p50/p95/p99 and max of the
+ * last interval as gauges (name.percentile with a phi tag, like Micrometer's
+ * own percentiles) and the total count as a counter. Gauges are only
+ * evaluated when metrics are read, so none of this is on the request path.
+ */
+public final class HistogramMeters {
+
+    private static final double[] PERCENTILES = {50, 95, 99};
+
+    private HistogramMeters() {
+    }
+
+    public static LatencyHistogram register(MeterRegistry registry, String name, Tags tags, Duration interval) {
+        LatencyHistogram histogram = new LatencyHistogram(interval.toMillis(), TimeUnit.MILLISECONDS);
+        for (double percentile : PERCENTILES) {
+            Gauge.builder(name + ".percentile", histogram, h -> h.percentileMillis(percentile))
+                    .tags(tags)
+                    .tag("phi", String.valueOf(percentile / 100))
+                    .baseUnit("milliseconds")
+                    .strongReference(true)
+                    .register(registry);
+        }
+        Gauge.builder(name + ".max", histogram, LatencyHistogram::maxMillis)
+                .tags(tags)
+                .baseUnit("milliseconds")
+                .strongReference(true)
+                .register(registry);
+        FunctionCounter.builder(name + ".count", histogram, LatencyHistogram::totalCount)
+                .tags(tags)
+                .register(registry);
+        return histogram;
+    }
+}
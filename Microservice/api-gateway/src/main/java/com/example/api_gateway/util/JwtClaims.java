@@ -0,0 +1,12 @@
+package com.example.api_gateway.util;
+
+/**
+ * The parts of a verified token the gateway forwards downstream, plus its
+ * jti for the revocation check (null for tokens issued without one).
+ */
+public record JwtClaims(String userId, String email, String role, String tokenId, long expiresAtMillis) {
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis <= nowMillis;
+    }
+}
@@ -1,26 +1,62 @@
 package com.example.api_gateway.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Verifies a bearer token once and caches the resulting claims until the
+ * token expires, so repeat requests with the same token skip parsing and the
+ * HMAC check. The cache is keyed by a SHA-256 digest of the token, so raw
+ * tokens are never kept in memory.
+ */
 @Component
 public class JwtUtil {
 
     @Value("${jwt.secret:MySecretKeyForJWTTokenGenerationMustBeAtLeast256BitsLongForHS256Algorithm}")
     private String secretKeyString;
 
+    @Value("${gateway.auth.cache.max-size:100000}")
+    private long cacheMaxSize;
+
+    @Value("${gateway.metrics.interval-seconds:60}")
+    private long metricsIntervalSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Full verifications only; cache hits are reported by the cache metrics
+    private LatencyHistogram verifyTime;
+
     private SecretKey secretKey;
 
+    private JwtParser parser;
+
+    private Cache<String, JwtClaims> verifiedTokens;
+
     @PostConstruct
     public void initializeSecretKey() {
         try {
@@ -40,65 +76,124 @@ public class JwtUtil {
         } catch (Exception e) {
             throw new RuntimeException("Failed to initialize JWT secret key", e);
         }
+
+        // Parsers are immutable and thread-safe, so one is built and shared
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
+
+        // Each entry lives exactly as long as its token stays valid
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .recordStats()
+                .expireAfter(new Expiry<String, JwtClaims>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtClaims claims, long currentTime) {
+                        long remainingMillis = claims.expiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, JwtClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, JwtClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+
+        // cache.gets{result=hit|miss} give the token cache hit ratio
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "gateway.auth.tokens");
+        this.verifyTime = HistogramMeters.register(meterRegistry, "gateway.auth.jwt.verify", Tags.empty(),
+                Duration.ofSeconds(metricsIntervalSeconds));
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * Returns the token's claims, or null if the token is invalid or expired.
+     */
+    public JwtClaims verify(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        String key = digest(token);
+        JwtClaims cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            if (!cached.isExpired(System.currentTimeMillis())) {
+                return cached;
+            }
+            verifiedTokens.invalidate(key);
+            return null;
+        }
+
+        long start = System.nanoTime();
+        JwtClaims claims = parse(token);
+        verifyTime.recordNanos(System.nanoTime() - start);
+        if (claims != null) {
+            verifiedTokens.put(key, claims);
+        }
+        return claims;
+    }
+
+    private JwtClaims parse(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (claims.getExpiration() == null) {
+                System.err.println("JWT token has no expiration");
+                return null;
+            }
+            return new JwtClaims(
+                    claims.get("userId", String.class),
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    claims.getId(),
+                    claims.getExpiration().getTime());
         } catch (ExpiredJwtException e) {
             System.err.println("JWT token has expired: " + e.getMessage());
-            return false;
+            return null;
         } catch (MalformedJwtException e) {
             System.err.println("Invalid JWT token format: " + e.getMessage());
-            return false;
+            return null;
         } catch (UnsupportedJwtException e) {
             System.err.println("Unsupported JWT token: " + e.getMessage());
-            return false;
+            return null;
         } catch (SignatureException e) {
             System.err.println("Invalid JWT signature: " + e.getMessage());
-            return false;
+            return null;
         } catch (IllegalArgumentException e) {
             System.err.println("JWT token is null or empty: " + e.getMessage());
-            return false;
+            return null;
         } catch (Exception e) {
             System.err.println("Error validating JWT token: " + e.getMessage());
-            return false;
+            return null;
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 
+    public boolean validateToken(String token) {
+        return verify(token) != null;
+    }
+
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getSubject();
+        JwtClaims claims = verify(token);
+        return claims != null ? claims.email() : null;
     }
 
     public String getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("userId", String.class);
+        JwtClaims claims = verify(token);
+        return claims != null ? claims.userId() : null;
     }
 
     public boolean isTokenExpired(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            return claims.getExpiration().before(new java.util.Date());
-        } catch (Exception e) {
-            return true;
-        }
+        return verify(token) == null;
     }
 }
-
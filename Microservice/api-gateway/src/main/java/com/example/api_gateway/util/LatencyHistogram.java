@@ -0,0 +1,120 @@
+package com.example.api_gateway.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HDR-style latency histogram: microsecond values fall into log-linear
+ * buckets (16 per power of two, so any bucket is within ~6% of the values in
+ * it), from 1 microsecond up to several hours. Recording is one bucket index
+ * computation and an atomic increment, with no allocation and no lock.
+ *
+ * Percentiles are read from the last completed interval. The interval is
+ * rotated lazily by readers, so the recording path never checks the clock.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 35;
+    private static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    private static final long MAX_VALUE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+
+    private final long intervalNanos;
+    private final LongAdder totalCount = new LongAdder();
+
+    private volatile Interval active = new Interval();
+    private volatile Interval completed;
+    private volatile long activeSince = System.nanoTime();
+
+    public LatencyHistogram(long interval, TimeUnit unit) {
+        this.intervalNanos = unit.toNanos(interval);
+    }
+
+    public void recordNanos(long nanos) {
+        long micros = Math.min(MAX_VALUE, Math.max(0, nanos / 1_000));
+        Interval interval = active;
+        interval.counts.incrementAndGet(bucket(micros));
+        if (micros > interval.max.get()) {
+            interval.max.accumulateAndGet(micros, Math::max);
+        }
+        totalCount.increment();
+    }
+
+    // All recordings since creation, for the monotonic request counter
+    public long totalCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * Upper bound, in milliseconds, of the bucket holding the given percentile
+     * (0-100) of the last interval, or 0 if nothing was recorded in it.
+     */
+    public double percentileMillis(double percentile) {
+        Interval interval = readable();
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = interval.counts.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), interval.max.get()) / 1_000.0;
+            }
+        }
+        return interval.max.get() / 1_000.0;
+    }
+
+    public double maxMillis() {
+        return readable().max.get() / 1_000.0;
+    }
+
+    private Interval readable() {
+        long now = System.nanoTime();
+        if (now - activeSince >= intervalNanos) {
+            synchronized (this) {
+                if (now - activeSince >= intervalNanos) {
+                    completed = active;
+                    active = new Interval();
+                    activeSince = now;
+                }
+            }
+        }
+        Interval last = completed;
+        return last != null ? last : active;
+    }
+
+    static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int shift = magnitude - SUB_BUCKET_BITS;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    private static final class Interval {
+        final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        final AtomicLong max = new AtomicLong();
+    }
+}
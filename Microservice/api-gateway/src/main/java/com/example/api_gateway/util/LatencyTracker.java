@@ -0,0 +1,42 @@
+package com.example.api_gateway.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Rolling p95 of the most recent response times for one route. Samples go
+ * into a fixed ring; the percentile is recomputed from a sorted copy every
+ * RECOMPUTE_EVERY samples, so reading it costs nothing per request.
+ */
+public final class LatencyTracker {
+
+    private static final int WINDOW = 512;
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final AtomicLongArray samples = new AtomicLongArray(WINDOW);
+    private final AtomicInteger count = new AtomicInteger();
+    private volatile long p95Millis = -1;
+
+    public void record(long millis) {
+        int n = count.getAndIncrement();
+        samples.set(Math.floorMod(n, WINDOW), millis);
+        if ((n + 1) % RECOMPUTE_EVERY == 0) {
+            recompute(n + 1 < WINDOW && n + 1 > 0 ? n + 1 : WINDOW);
+        }
+    }
+
+    // -1 until enough samples have been seen
+    public long p95Millis() {
+        return p95Millis;
+    }
+
+    private void recompute(int size) {
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        p95Millis = copy[(int) Math.ceil(size * 0.95) - 1];
+    }
+}
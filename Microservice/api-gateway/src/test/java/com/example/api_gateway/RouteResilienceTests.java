@@ -0,0 +1,210 @@
+package com.example.api_gateway;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fault injection against local stub backends: one stub per route, each told
+ * how to misbehave by the test.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class RouteResilienceTests {
+
+    private static final String SECRET = "MySecretKeyForJWTTokenGenerationMustBeAtLeast256BitsLongForHS256Algorithm";
+
+    // user-service: slow; wallet-service: status set by the test; transaction-service: slow first call only
+    private static final Stub userStub = Stub.start();
+    private static final Stub walletStub = Stub.start();
+    private static final Stub transactionStub = Stub.start();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) {
+        route(registry, 0, "user-service", userStub, "/api/users/**", 300);
+        route(registry, 1, "wallet-service", walletStub, "/api/wallets/**", 2000);
+        route(registry, 2, "transaction-service", transactionStub, "/api/transactions/**", 3000);
+
+        registry.add("gateway.rate-limit.enabled", () -> "false");
+        registry.add("gateway.coalescing.enabled", () -> "false");
+        registry.add("gateway.hedging.enabled", () -> "true");
+        registry.add("gateway.hedging.routes", () -> "transaction-service");
+        registry.add("gateway.hedging.initial-delay-ms", () -> "100");
+        registry.add("gateway.hedging.max-percent", () -> "100");
+
+        registry.add("resilience4j.circuitbreaker.configs.default.sliding-window-size", () -> "4");
+        registry.add("resilience4j.circuitbreaker.configs.default.minimum-number-of-calls", () -> "4");
+        registry.add("resilience4j.circuitbreaker.configs.default.wait-duration-in-open-state", () -> "500ms");
+        registry.add("resilience4j.circuitbreaker.configs.default.permitted-number-of-calls-in-half-open-state", () -> "1");
+    }
+
+    private static void route(DynamicPropertyRegistry registry, int index, String id, Stub stub, String path,
+                              int responseTimeoutMillis) {
+        String prefix = "spring.cloud.gateway.routes[" + index + "].";
+        registry.add(prefix + "id", () -> id);
+        registry.add(prefix + "uri", () -> "http://127.0.0.1:" + stub.port());
+        registry.add(prefix + "predicates[0]", () -> "Path=" + path);
+        registry.add(prefix + "filters[0]", () -> "StripPrefix=1");
+        registry.add(prefix + "filters[1].name", () -> "CircuitBreaker");
+        registry.add(prefix + "filters[1].args.name", () -> id);
+        registry.add(prefix + "filters[1].args.statusCodes", () -> "500,502,503,504");
+        registry.add(prefix + "metadata.connect-timeout", () -> "500");
+        registry.add(prefix + "metadata.response-timeout", () -> String.valueOf(responseTimeoutMillis));
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        userStub.stop();
+        walletStub.stop();
+        transactionStub.stop();
+    }
+
+    @Test
+    void slowBackendIsCutOffAtTheRouteTimeout() {
+        userStub.delayMillis = 2000;
+
+        long start = System.nanoTime();
+        webTestClient.get().uri("/api/users/me")
+                .header("Authorization", "Bearer " + token())
+                .exchange()
+                .expectStatus().isEqualTo(504);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 1500, "gateway waited " + elapsedMillis + " ms for a 300 ms route timeout");
+    }
+
+    @Test
+    void breakerOpensOnFailuresAndRecoversThroughHalfOpen() throws InterruptedException {
+        walletStub.status = 500;
+        for (int i = 0; i < 4; i++) {
+            webTestClient.get().uri("/api/wallets").header("Authorization", "Bearer " + token())
+                    .exchange()
+                    .expectStatus().is5xxServerError();
+        }
+        int hitsWhenOpened = walletStub.hits.get();
+
+        // Open: rejected at the gateway without reaching the backend
+        webTestClient.get().uri("/api/wallets").header("Authorization", "Bearer " + token())
+                .exchange()
+                .expectStatus().isEqualTo(503);
+        assertEquals(hitsWhenOpened, walletStub.hits.get());
+
+        assertNotNull(meterRegistry.find("resilience4j.circuitbreaker.state")
+                .tag("name", "wallet-service")
+                .tag("state", "open")
+                .gauge());
+
+        // After the open wait, one probe is let through and closes the breaker again
+        walletStub.status = 200;
+        Thread.sleep(700);
+        webTestClient.get().uri("/api/wallets").header("Authorization", "Bearer " + token())
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/api/wallets").header("Authorization", "Bearer " + token())
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void hedgedGetIsAnsweredByTheFasterCopy() {
+        transactionStub.slowFirstCallMillis = 1500;
+
+        long start = System.nanoTime();
+        webTestClient.mutate().responseTimeout(Duration.ofSeconds(5)).build()
+                .get().uri("/api/transactions")
+                .header("Authorization", "Bearer " + token())
+                .exchange()
+                .expectStatus().isOk();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 1000, "hedge did not win, took " + elapsedMillis + " ms");
+        assertEquals(2, transactionStub.hits.get());
+    }
+
+    private static String token() {
+        byte[] key = Arrays.copyOf(SECRET.getBytes(StandardCharsets.UTF_8), 32);
+        Date now = new Date();
+        return Jwts.builder()
+                .subject("stub@example.com")
+                .claim("userId", UUID.randomUUID().toString())
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(key))
+                .compact();
+    }
+
+    private static final class Stub {
+        final AtomicInteger hits = new AtomicInteger();
+        volatile int status = 200;
+        volatile long delayMillis;
+        volatile long slowFirstCallMillis;
+        private HttpServer server;
+
+        static Stub start() {
+            Stub stub = new Stub();
+            try {
+                stub.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 64);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            stub.server.setExecutor(Executors.newCachedThreadPool());
+            stub.server.createContext("/", exchange -> {
+                int call = stub.hits.incrementAndGet();
+                long delay = call == 1 && stub.slowFirstCallMillis > 0 ? stub.slowFirstCallMillis : stub.delayMillis;
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                try {
+                    exchange.sendResponseHeaders(stub.status, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                } catch (IOException e) {
+                    // client (the gateway) gave up first
+                }
+            });
+            stub.server.start();
+            return stub;
+        }
+
+        int port() {
+            return server.getAddress().getPort();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.transaction_service.Client;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
@@ -14,9 +15,11 @@ public class UserServiceClient {
     private static final Logger logger = LogManager.getLogger(UserServiceClient.class);
     private final WebClient webClient;
 
-    public UserServiceClient(@Value("${user.service.url}") String userServiceUrl) {
+    public UserServiceClient(@Value("${user.service.url}") String userServiceUrl,
+                             LoadBalancedExchangeFilterFunction loadBalancerFunction) {
         this.webClient = WebClient.builder()
                 .baseUrl(userServiceUrl)
+                .filter(loadBalancerFunction)
                 .build();
     }
 
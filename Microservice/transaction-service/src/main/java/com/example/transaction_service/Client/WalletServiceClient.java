@@ -1,8 +1,10 @@
 package com.example.transaction_service.Client;
 
+import com.example.transaction_service.Security.ForwardedHeaderSigner;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
@@ -15,19 +17,31 @@ import java.util.UUID;
 public class WalletServiceClient {
 
     private static final Logger logger = LogManager.getLogger(WalletServiceClient.class);
+    // Lifetime of the identity headers this service signs for its own wallet-service calls
+    private static final long SIGNED_HEADER_TTL_MILLIS = 60_000;
+
     private final WebClient webClient;
+    private final ForwardedHeaderSigner headerSigner;
 
-    public WalletServiceClient(@Value("${wallet.service.url}") String walletServiceUrl) {
+    public WalletServiceClient(@Value("${wallet.service.url}") String walletServiceUrl,
+                               ForwardedHeaderSigner headerSigner,
+                               LoadBalancedExchangeFilterFunction loadBalancerFunction) {
         this.webClient = WebClient.builder()
                 .baseUrl(walletServiceUrl)
+                .filter(loadBalancerFunction)
                 .build();
+        this.headerSigner = headerSigner;
     }
 
     public List<WalletDTO> getUserWallets(UUID userId) {
         try {
+            long expiresAtMillis = System.currentTimeMillis() + SIGNED_HEADER_TTL_MILLIS;
             return webClient.get()
                     .uri("/wallets/with-balance")
-                    .header("X-User-Id", userId.toString()) // Pass user ID in header
+                    .header(ForwardedHeaderSigner.USER_ID_HEADER, userId.toString()) // Pass user ID in header
+                    .header(ForwardedHeaderSigner.EXPIRES_HEADER, String.valueOf(expiresAtMillis))
+                    .header(ForwardedHeaderSigner.SIGNATURE_HEADER,
+                            headerSigner.sign(userId.toString(), null, null, expiresAtMillis))
                     .retrieve()
                     .bodyToMono(new ParameterizedTypeReference<List<WalletDTO>>() {
                     })
@@ -0,0 +1,10 @@
+package com.example.transaction_service.Config;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+// The WebClient clients call services by id; instances come from spring.cloud.discovery.client.simple.instances
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LeastLoadedLoadBalancerConfiguration.class)
+public class LoadBalancingConfig {
+}
@@ -4,6 +4,8 @@ import com.example.transaction_service.DTO.MessageResponseDTO;
 import com.example.transaction_service.DTO.OtpVerificationDTO;
 import com.example.transaction_service.DTO.PaginatedResponse;
 import com.example.transaction_service.DTO.TransactionDTO;
+import com.example.transaction_service.Exceptions.ErrorCode;
+import com.example.transaction_service.Exceptions.ValidationException;
 import com.example.transaction_service.Service.OtpService;
 import com.example.transaction_service.Service.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -117,9 +119,9 @@ public class TransactionController {
                 response.put("status", "success");
                 return ResponseEntity.ok(response);
             }
-        } catch (com.example.transaction_service.Exceptions.ValidationException e) {
+        } catch (ValidationException e) {
             Map<String, String> response = new HashMap<>();
-            if (e.getMessage().contains("Transaction has failed")) {
+            if (e.getErrorCode() == ErrorCode.OTP_ATTEMPTS_EXCEEDED) {
                 response.put("message", e.getMessage());
                 response.put("status", "failed");
                 return ResponseEntity.badRequest().body(response);
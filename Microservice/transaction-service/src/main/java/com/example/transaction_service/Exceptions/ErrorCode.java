@@ -0,0 +1,31 @@
+package com.example.transaction_service.Exceptions;
+
+import org.springframework.http.HttpStatus;
+
+// Typed reason carried by every DomainException; the handler maps it to the HTTP status
+public enum ErrorCode {
+    VALIDATION_FAILED(HttpStatus.BAD_REQUEST),
+    NOT_AUTHENTICATED(HttpStatus.BAD_REQUEST),
+    ACCESS_DENIED(HttpStatus.BAD_REQUEST),
+    INVALID_CREDENTIALS(HttpStatus.BAD_REQUEST),
+    INVALID_AMOUNT(HttpStatus.BAD_REQUEST),
+    INVALID_PASSCODE(HttpStatus.BAD_REQUEST),
+    INSUFFICIENT_BALANCE(HttpStatus.BAD_REQUEST),
+    TRANSACTION_NOT_PENDING(HttpStatus.BAD_REQUEST),
+    OTP_INCORRECT(HttpStatus.BAD_REQUEST),
+    OTP_EXPIRED(HttpStatus.BAD_REQUEST),
+    OTP_ALREADY_VERIFIED(HttpStatus.BAD_REQUEST),
+    OTP_ATTEMPTS_EXCEEDED(HttpStatus.BAD_REQUEST),
+    RESOURCE_NOT_FOUND(HttpStatus.NOT_FOUND),
+    DUPLICATE_RESOURCE(HttpStatus.CONFLICT);
+
+    private final HttpStatus status;
+
+    ErrorCode(HttpStatus status) {
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.transaction_service.Security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Verifies the identity headers on incoming requests and signs the ones this
+ * service sends when it calls wallet-service on a user's behalf.
+ */
+@Component
+public class ForwardedHeaderSigner {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_EMAIL_HEADER = "X-User-Email";
+    public static final String USER_ROLE_HEADER = "X-User-Role";
+    public static final String EXPIRES_HEADER = "X-User-Expires";
+    public static final String SIGNATURE_HEADER = "X-User-Signature";
+
+    @Value("${security.forwarded-headers.secret:MyForwardedHeaderSigningKeyMustMatchAcrossAllServices}")
+    private String secret;
+
+    private SecretKeySpec key;
+
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    @PostConstruct
+    public void init() {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    public String sign(String userId, String email, String role, long expiresAtMillis) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac(userId, email, role, expiresAtMillis));
+    }
+
+    public boolean verify(HttpServletRequest request) {
+        String signature = request.getHeader(SIGNATURE_HEADER);
+        String expires = request.getHeader(EXPIRES_HEADER);
+        if (signature == null || expires == null) {
+            return false;
+        }
+
+        long expiresAtMillis;
+        try {
+            expiresAtMillis = Long.parseLong(expires);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return false;
+        }
+
+        byte[] expected = mac(request.getHeader(USER_ID_HEADER), request.getHeader(USER_EMAIL_HEADER),
+                request.getHeader(USER_ROLE_HEADER), expiresAtMillis);
+        try {
+            return MessageDigest.isEqual(expected, Base64.getUrlDecoder().decode(signature));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private byte[] mac(String userId, String email, String role, long expiresAtMillis) {
+        String payload = (userId != null ? userId : "") + '\n'
+                + (email != null ? email : "") + '\n'
+                + (role != null ? role : "") + '\n'
+                + expiresAtMillis;
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to initialize forwarded header signing", e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.transaction_service.Security;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -9,14 +10,18 @@ import java.util.UUID;
 /**
  * Security utility for extracting user information from request headers.
  * In microservices architecture, the API Gateway extracts user info from JWT
- * and passes it in request headers.
+ * and passes it in request headers, signed so they cannot be supplied by clients.
  */
 @Component
 public class SecurityUtil {
 
-    private static final String USER_ID_HEADER = "X-User-Id";
-    private static final String USER_ROLE_HEADER = "X-User-Role";
-    private static final String USER_EMAIL_HEADER = "X-User-Email";
+    private static final String USER_ID_HEADER = ForwardedHeaderSigner.USER_ID_HEADER;
+    private static final String USER_ROLE_HEADER = ForwardedHeaderSigner.USER_ROLE_HEADER;
+    private static final String USER_EMAIL_HEADER = ForwardedHeaderSigner.USER_EMAIL_HEADER;
+    private static final String VERIFIED_ATTR = SecurityUtil.class.getName() + ".verified";
+
+    @Autowired
+    private ForwardedHeaderSigner headerSigner;
 
     /**
      * Gets the current user ID from request headers (set by API Gateway)
@@ -76,9 +81,19 @@ public class SecurityUtil {
         return getCurrentUserId() != null;
     }
 
+    // Verified once per request; later calls read the cached attribute
     private HttpServletRequest getRequest() {
         ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-        return attributes != null ? attributes.getRequest() : null;
+        if (attributes == null) {
+            return null;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        Boolean verified = (Boolean) request.getAttribute(VERIFIED_ATTR);
+        if (verified == null) {
+            verified = headerSigner.verify(request);
+            request.setAttribute(VERIFIED_ATTR, verified);
+        }
+        return verified ? request : null;
     }
 }
 
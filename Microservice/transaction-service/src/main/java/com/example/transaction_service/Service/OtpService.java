@@ -11,6 +11,7 @@ import com.example.transaction_service.Model.Transaction;
 import com.example.transaction_service.Repository.TransactionRepo;
 import com.example.transaction_service.Exceptions.ResourceNotFoundException;
 import com.example.transaction_service.Exceptions.ValidationException;
+import com.example.transaction_service.Exceptions.ErrorCode;
 import java.util.Random;
 import java.util.UUID;
 
@@ -74,13 +75,13 @@ public class OtpService {
         }
 
         if (otpData.getIsVerified()) {
-            throw new ValidationException("OTP has already been verified for this transaction.");
+            throw new ValidationException(ErrorCode.OTP_ALREADY_VERIFIED, "OTP has already been verified for this transaction.");
         }
 
         if (otpData.getAttemptCount() >= MAX_ATTEMPTS) {
             markTransactionAsFailed(transactionId, "Wrong OTP");
             otpCache.invalidate(transactionId); // Remove from cache
-            throw new ValidationException("Transaction has failed. Maximum OTP verification attempts exceeded.");
+            throw new ValidationException(ErrorCode.OTP_ATTEMPTS_EXCEEDED, "Transaction has failed. Maximum OTP verification attempts exceeded.");
         }
 
         if (passwordEncoder.matches(enteredOtp, otpData.getHashedOtpCode())) {
@@ -107,11 +108,11 @@ public class OtpService {
             if (otpData.getAttemptCount() >= MAX_ATTEMPTS) {
                 markTransactionAsFailed(transactionId, "Wrong OTP");
                 otpCache.invalidate(transactionId);
-                throw new ValidationException("Transaction has failed. Maximum OTP verification attempts exceeded.");
+                throw new ValidationException(ErrorCode.OTP_ATTEMPTS_EXCEEDED, "Transaction has failed. Maximum OTP verification attempts exceeded.");
             }
 
             int remainingAttempts = MAX_ATTEMPTS - otpData.getAttemptCount();
-            throw new ValidationException("Incorrect OTP. Attempts remaining: " + remainingAttempts);
+            throw new ValidationException(ErrorCode.OTP_INCORRECT, "Incorrect OTP. Attempts remaining: " + remainingAttempts);
         }
     }
 
@@ -8,6 +8,7 @@ import com.example.transaction_service.Security.SecurityUtil;
 import com.example.transaction_service.Client.WalletServiceClient;
 import com.example.transaction_service.Client.UserServiceClient;
 import com.example.transaction_service.Exceptions.ValidationException;
+import com.example.transaction_service.Exceptions.ErrorCode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -82,7 +83,7 @@ public class TransactionService {
         UUID currentUserId = securityUtil.getCurrentUserId();
 
         if (currentUserId == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         if (securityUtil.isAdmin()) {
@@ -98,7 +99,7 @@ public class TransactionService {
         UUID currentUserId = securityUtil.getCurrentUserId();
 
         if (currentUserId == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         if (securityUtil.isAdmin()) {
@@ -114,7 +115,7 @@ public class TransactionService {
         UUID currentUserId = securityUtil.getCurrentUserId();
 
         if (currentUserId == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         if (securityUtil.isAdmin()) {
@@ -185,7 +186,7 @@ public class TransactionService {
         UUID currentUserId = securityUtil.getCurrentUserId();
 
         if (currentUserId == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         // Fetch user details from User Service
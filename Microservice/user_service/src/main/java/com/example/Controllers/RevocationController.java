@@ -0,0 +1,37 @@
+package com.example.Controllers;
+
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.Service.TokenRevocationService;
+import com.example.DTO.RevocationDeltaDTO;
+import com.example.DTO.RevocationSnapshotDTO;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import java.util.Map;
+
+// Read by the API gateway's revocation check; the gateway has no route to /internal
+@RestController
+public class RevocationController {
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @GetMapping("/internal/revocations/snapshot")
+    public ResponseEntity<RevocationSnapshotDTO> getSnapshot() {
+        return ResponseEntity.ok(tokenRevocationService.getSnapshot());
+    }
+
+    @GetMapping("/internal/revocations")
+    public ResponseEntity<RevocationDeltaDTO> getDelta(@RequestParam(defaultValue = "0") long after) {
+        return ResponseEntity.ok(tokenRevocationService.getDelta(after));
+    }
+
+    @GetMapping("/internal/revocations/{tokenId}")
+    public ResponseEntity<Map<String, Boolean>> isRevoked(@PathVariable String tokenId) {
+        return ResponseEntity.ok(Map.of("revoked", tokenRevocationService.confirmRevoked(tokenId)));
+    }
+}
@@ -3,6 +3,7 @@ package com.example.Controllers;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.Service.UserService;
+import com.example.Service.TokenRevocationService;
 import com.example.DTO.UserDTO;
 import com.example.DTO.UserCreateDTO;
 import com.example.DTO.LoginRequestDTO;
@@ -18,6 +19,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +31,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @GetMapping("/users")
     public List<UserDTO> getUsers() {
         return userService.getUsers();
@@ -75,4 +80,13 @@ public class UserController {
         AuthResponseDTO response = userService.login(loginRequest);
         return ResponseEntity.ok(response);
     }
+
+    // The token stops working at the gateway within revocation.delta.poll-ms
+    @PostMapping("/auth/logout")
+    public ResponseEntity<Map<String, String>> logout(@RequestHeader("Authorization") String authorization) {
+        tokenRevocationService.revoke(authorization);
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Logged out successfully");
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+// Token ids revoked after the requested sequence, oldest first; sequence is the last one included
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevocationDeltaDTO {
+    private long sequence;
+    private List<String> tokenIds;
+}
@@ -0,0 +1,17 @@
+package com.example.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Bloom filter of every unexpired revoked token id up to sequence
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevocationSnapshotDTO {
+    private long sequence;
+    private int numBits;
+    private int numHashes;
+    // BloomFilter.toBytes(), Base64
+    private String bits;
+}
@@ -1,8 +1,11 @@
 package com.example.Exceptions;
 
-public class DuplicateResourceException extends RuntimeException {
+public class DuplicateResourceException extends DomainException {
     public DuplicateResourceException(String message) {
-        super(message);
+        super(ErrorCode.DUPLICATE_RESOURCE, message);
     }
-}
 
+    public DuplicateResourceException(ErrorCode errorCode, String message) {
+        super(errorCode, message);
+    }
+}
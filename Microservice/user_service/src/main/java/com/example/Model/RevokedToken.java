@@ -0,0 +1,39 @@
+package com.example.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expiresAt"),
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revokedAt")
+})
+public class RevokedToken {
+
+    // Increasing, so it doubles as the revocation sequence the gateway polls from. Ids are
+    // allocated at insert, not commit, so a lower id can become visible after a higher one.
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The token's jti
+    @Column(unique = true, nullable = false, length = 64)
+    private String tokenId;
+    private UUID userId;
+    private LocalDateTime expiresAt;
+    private LocalDateTime revokedAt;
+
+}
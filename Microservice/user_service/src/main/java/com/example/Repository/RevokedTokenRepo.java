@@ -0,0 +1,30 @@
+package com.example.Repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import com.example.Model.RevokedToken;
+
+public interface RevokedTokenRepo extends JpaRepository<RevokedToken, Long> {
+
+    boolean existsByTokenId(String tokenId);
+
+    List<RevokedToken> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    // Past the sequence, plus anything revoked since 'since' at or below it (ids can commit out of order)
+    @Query("select r from RevokedToken r where r.id > :after or r.revokedAt >= :since order by r.id")
+    List<RevokedToken> findDelta(@Param("after") long after, @Param("since") LocalDateTime since, Pageable pageable);
+
+    @Query("select coalesce(max(r.id), 0) from RevokedToken r")
+    long findMaxId();
+
+    @Query("select r.tokenId from RevokedToken r where r.id <= :maxId and r.expiresAt > :now")
+    List<String> findUnexpiredTokenIds(@Param("maxId") long maxId, @Param("now") LocalDateTime now);
+
+    @Transactional
+    long deleteByExpiresAtBefore(LocalDateTime cutoff);
+}
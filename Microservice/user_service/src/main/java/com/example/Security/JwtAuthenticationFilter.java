@@ -2,6 +2,7 @@ package com.example.Security;
 
 import com.example.Repository.UserRepo;
 import com.example.Model.User;
+import com.example.Service.TokenRevocationService;
 import com.example.Util.JwtUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -29,6 +30,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserRepo userRepo;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
@@ -57,8 +61,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (token != null && email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            // Validate the token
-            if (jwtUtil.validateToken(token)) {
+            // Validate the token and make sure it has not been revoked (logged out)
+            if (jwtUtil.validateToken(token) && !tokenRevocationService.isRevoked(jwtUtil.getTokenIdFromToken(token))) {
 
                 Optional<User> userOptional = userRepo.findByEmail(email);
 
@@ -88,7 +92,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     logger.warn("User not found in database for email: " + email);
                 }
             } else {
-                logger.warn("JWT token validation failed for email: " + email);
+                logger.warn("JWT token validation failed or token revoked for email: " + email);
             }
         } else {
             if (token == null) {
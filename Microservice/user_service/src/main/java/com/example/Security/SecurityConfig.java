@@ -33,6 +33,10 @@ public class SecurityConfig {
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
                         // Allow service-to-service calls - Wallet Service and Transaction Service need to access /users/{id}
                         .requestMatchers("/users/**").permitAll()
+                        // Load balancer health probes from the gateway and the other services
+                        .requestMatchers("/actuator/health").permitAll()
+                        // Revocation snapshot, deltas and confirmations for the gateway; token ids only
+                        .requestMatchers("/internal/revocations/**").permitAll()
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -0,0 +1,174 @@
+package com.example.Service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import com.example.DTO.RevocationDeltaDTO;
+import com.example.DTO.RevocationSnapshotDTO;
+import com.example.Exceptions.ErrorCode;
+import com.example.Exceptions.ValidationException;
+import com.example.Model.RevokedToken;
+import com.example.Repository.RevokedTokenRepo;
+import com.example.Util.BloomFilter;
+import com.example.Util.JwtUtil;
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Token revocation (logout). A revoked token's jti is stored until the token
+ * would have expired anyway. The API gateway keeps a bloom filter of those
+ * ids and checks every request against it; only the rare ids the filter
+ * matches are confirmed with confirmRevoked.
+ *
+ * Every rebuild-ms the filter is rebuilt from the table, which drops expired
+ * tokens, and served as the snapshot. Between snapshots the gateway polls
+ * getDelta for ids revoked after the sequence it already has. The filter this
+ * service checks its own requests against is kept current the same way.
+ *
+ * Auto-increment ids are allocated at insert time, so a revocation can commit
+ * after a higher id has already been served. Each delta therefore also
+ * repeats the ids revoked within overlap-seconds before the sequence's own
+ * revocation; putting an id in the filter twice is harmless.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LogManager.getLogger(TokenRevocationService.class);
+
+    private static final int DELTA_LIMIT = 1000;
+
+    @Autowired
+    private RevokedTokenRepo revokedTokenRepo;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    // Revoked tokens that have not expired yet; with 30 minute tokens, revocations per half hour
+    @Value("${revocation.bloom.expected-revocations:10000}")
+    private long expectedRevocations;
+
+    @Value("${revocation.bloom.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${revocation.bloom.max-bytes:1048576}")
+    private long maxBytes;
+
+    @Value("${revocation.delta.overlap-seconds:30}")
+    private long overlapSeconds;
+
+    private volatile RevocationSnapshotDTO snapshot;
+
+    private volatile BloomFilter filter;
+
+    private long appliedSequence;
+
+    @PostConstruct
+    public void init() {
+        rebuildSnapshot();
+    }
+
+    public void revoke(String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "Missing or invalid Authorization header");
+        }
+        String token = authorizationHeader.substring(7).trim();
+        String tokenId = jwtUtil.getTokenIdFromToken(token);
+        Date expiresAt = jwtUtil.getExpirationDateFromToken(token);
+        if (tokenId == null || expiresAt == null) {
+            throw new ValidationException("Token cannot be revoked");
+        }
+        if (revokedTokenRepo.existsByTokenId(tokenId)) {
+            return;
+        }
+
+        UUID userId = jwtUtil.getUserIdFromToken(token);
+        try {
+            revokedTokenRepo.save(new RevokedToken(null, tokenId, userId,
+                    LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault()), LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            // Revoked concurrently by another request with the same token
+            return;
+        }
+        filter.put(tokenId);
+        logger.info("Revoked token {} of user {}", tokenId, userId);
+    }
+
+    // Filter first, so an unrevoked token (nearly every request) costs no query
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && filter.mightContain(tokenId) && revokedTokenRepo.existsByTokenId(tokenId);
+    }
+
+    public boolean confirmRevoked(String tokenId) {
+        return revokedTokenRepo.existsByTokenId(tokenId);
+    }
+
+    public RevocationSnapshotDTO getSnapshot() {
+        return snapshot;
+    }
+
+    public RevocationDeltaDTO getDelta(long after) {
+        // Anchored at the sequence's revocation, not now, so a snapshot fetched minutes after it was built is covered.
+        // Without that row (sequence 0, or purged long after expiry) there is nothing left to overlap.
+        PageRequest limit = PageRequest.of(0, DELTA_LIMIT);
+        List<RevokedToken> revoked = revokedTokenRepo.findById(after)
+                .map(anchor -> revokedTokenRepo.findDelta(after, anchor.getRevokedAt().minusSeconds(overlapSeconds), limit))
+                .orElseGet(() -> revokedTokenRepo.findByIdGreaterThanOrderByIdAsc(after, limit));
+
+        long sequence = after;
+        for (RevokedToken token : revoked) {
+            sequence = Math.max(sequence, token.getId());
+        }
+        return new RevocationDeltaDTO(sequence, revoked.stream().map(RevokedToken::getTokenId).toList());
+    }
+
+    @Scheduled(initialDelayString = "${revocation.snapshot.rebuild-ms:300000}",
+            fixedDelayString = "${revocation.snapshot.rebuild-ms:300000}")
+    public synchronized void rebuildSnapshot() {
+        try {
+            long sequence = revokedTokenRepo.findMaxId();
+            List<String> tokenIds = revokedTokenRepo.findUnexpiredTokenIds(sequence, LocalDateTime.now());
+
+            BloomFilter rebuilt = BloomFilter.create(expectedRevocations, falsePositiveRate, maxBytes);
+            tokenIds.forEach(rebuilt::put);
+            snapshot = new RevocationSnapshotDTO(sequence, rebuilt.numBits(), rebuilt.numHashes(),
+                    Base64.getEncoder().encodeToString(rebuilt.toBytes()));
+            // Revocations saved while this was built are after sequence, so the next poll adds them
+            filter = rebuilt;
+            appliedSequence = sequence;
+
+            revokedTokenRepo.deleteByExpiresAtBefore(LocalDateTime.now().minusHours(1));
+            logger.info("Revocation snapshot at sequence {}: {} unexpired revoked tokens, {} bytes, {} hashes",
+                    sequence, tokenIds.size(), rebuilt.sizeBytes(), rebuilt.numHashes());
+        } catch (Exception e) {
+            logger.error("Error rebuilding revocation snapshot: {}", e.getMessage(), e);
+            if (filter == null) {
+                // Nothing is treated as revoked until the first snapshot succeeds
+                BloomFilter empty = BloomFilter.create(expectedRevocations, falsePositiveRate, maxBytes);
+                snapshot = new RevocationSnapshotDTO(0, empty.numBits(), empty.numHashes(),
+                        Base64.getEncoder().encodeToString(empty.toBytes()));
+                filter = empty;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${revocation.delta.poll-ms:2000}")
+    public synchronized void applyNewRevocations() {
+        try {
+            RevocationDeltaDTO delta = getDelta(appliedSequence);
+            delta.getTokenIds().forEach(filter::put);
+            appliedSequence = delta.getSequence();
+        } catch (Exception e) {
+            logger.error("Error polling revocations: {}", e.getMessage(), e);
+        }
+    }
+}
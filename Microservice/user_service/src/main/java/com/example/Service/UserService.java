@@ -13,6 +13,7 @@ import com.example.Util.JwtUtil;
 import com.example.Exceptions.DuplicateResourceException;
 import com.example.Exceptions.ResourceNotFoundException;
 import com.example.Exceptions.ValidationException;
+import com.example.Exceptions.ErrorCode;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -124,16 +125,16 @@ public class UserService {
         Optional<User> userOptional = userRepo.findByEmail(loginRequest.getEmail());
 
         if (userOptional.isEmpty()) {
-            throw new ValidationException("Invalid email or password");
+            throw new ValidationException(ErrorCode.INVALID_CREDENTIALS, "Invalid email or password");
         }
 
         User user = userOptional.get();
 
         if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
-            throw new ValidationException("Invalid email or password");
+            throw new ValidationException(ErrorCode.INVALID_CREDENTIALS, "Invalid email or password");
         }
 
-        String token = jwtUtil.generateToken(user.getId(), user.getEmail());
+        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole());
 
         UserDTO userDTO = convertToDTO(user);
 
@@ -155,7 +156,7 @@ public class UserService {
         User user = userRepo.findById(userDTO.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found after creation"));
 
-        String token = jwtUtil.generateToken(user.getId(), user.getEmail());
+        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole());
 
         AuthResponseDTO response = new AuthResponseDTO();
         response.setToken(token);
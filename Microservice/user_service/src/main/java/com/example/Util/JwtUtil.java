@@ -54,13 +54,17 @@ public class JwtUtil {
         }
     }
 
-    public String generateToken(UUID userId, String email) {
+    // The role travels in the token so the gateway can forward it without a user lookup
+    public String generateToken(UUID userId, String email, String role) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + EXPIRATION_TIME);
 
+        // The jti identifies the token if it is revoked before it expires
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(email)
                 .claim("userId", userId.toString())
+                .claim("role", role != null ? role.toUpperCase() : "USER")
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(secretKey)
@@ -155,6 +159,19 @@ public class JwtUtil {
         }
     }
 
+    public String getTokenIdFromToken(String token) {
+        try {
+            Claims claims = Jwts.parser()
+                    .verifyWith(secretKey)
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+            return claims.getId();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     public long getExpirationTime() {
         return EXPIRATION_TIME;
     }
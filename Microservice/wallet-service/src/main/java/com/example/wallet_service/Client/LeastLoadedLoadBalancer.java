@@ -0,0 +1,181 @@
+package com.example.wallet_service.Client;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpStatusCode;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Power-of-two-choices balancer for one service: two random instances are
+ * compared and the one with fewer outstanding requests is used. The instance
+ * list comes from the health-checked supplier, so instances failing their
+ * /actuator/health probe are already gone.
+ *
+ * Also the lifecycle callback for the same service, which keeps the
+ * outstanding counts and does outlier ejection: after consecutive-failures
+ * 5xx responses or connection errors in a row an instance is skipped for
+ * base-ejection-seconds, times the number of times it has been ejected. At
+ * most max-ejection-percent of the instances are ejected at once, and if
+ * every instance is ejected they are all used rather than none.
+ */
+public class LeastLoadedLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private static final Logger logger = LogManager.getLogger(LeastLoadedLoadBalancer.class);
+
+    // Caps the ejection time of an instance that keeps failing
+    private static final int MAX_EJECTION_MULTIPLIER = 10;
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final int consecutiveFailures;
+    private final long baseEjectionNanos;
+    private final int maxEjectionPercent;
+
+    private final Map<String, InstanceStats> statsByInstance = new ConcurrentHashMap<>();
+
+    public LeastLoadedLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId,
+                                   int consecutiveFailures, long baseEjectionSeconds, int maxEjectionPercent) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.consecutiveFailures = consecutiveFailures;
+        this.baseEjectionNanos = TimeUnit.SECONDS.toNanos(baseEjectionSeconds);
+        this.maxEjectionPercent = maxEjectionPercent;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            logger.warn("No healthy instances of {}", serviceId);
+            return new EmptyResponse();
+        }
+
+        long now = System.nanoTime();
+        List<ServiceInstance> candidates = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            if (!stats(instance).isEjected(now)) {
+                candidates.add(instance);
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates = instances;
+        }
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return new DefaultResponse(stats(a).outstanding.get() <= stats(b).outstanding.get() ? a : b);
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse != null && lbResponse.hasServer()) {
+            stats(lbResponse.getServer()).outstanding.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD
+                || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        InstanceStats stats = stats(lbResponse.getServer());
+        stats.outstanding.decrementAndGet();
+
+        if (completionContext.status() == CompletionContext.Status.FAILED
+                || isServerError(completionContext.getClientResponse())) {
+            onFailure(lbResponse.getServer(), stats);
+        } else {
+            stats.consecutiveFailures.set(0);
+        }
+    }
+
+    private static boolean isServerError(Object clientResponse) {
+        if (clientResponse instanceof ResponseData responseData) {
+            HttpStatusCode status = responseData.getHttpStatus();
+            return status != null && status.is5xxServerError();
+        }
+        return false;
+    }
+
+    private void onFailure(ServiceInstance instance, InstanceStats stats) {
+        if (stats.consecutiveFailures.incrementAndGet() < consecutiveFailures) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (stats.isEjected(now)) {
+                return;
+            }
+            long ejected = statsByInstance.values().stream().filter(s -> s.isEjected(now)).count();
+            if ((ejected + 1) * 100 > (long) statsByInstance.size() * maxEjectionPercent) {
+                return;
+            }
+            int multiplier = Math.min(MAX_EJECTION_MULTIPLIER, stats.ejections.incrementAndGet());
+            stats.ejectedUntilNanos = now + baseEjectionNanos * multiplier;
+            stats.consecutiveFailures.set(0);
+        }
+        logger.warn("Ejected {} instance {}:{} for {}s after {} consecutive failures", serviceId,
+                instance.getHost(), instance.getPort(),
+                TimeUnit.NANOSECONDS.toSeconds(stats.ejectedUntilNanos - now), consecutiveFailures);
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        return statsByInstance.computeIfAbsent(instance.getHost() + ':' + instance.getPort(), key -> new InstanceStats());
+    }
+
+    private static final class InstanceStats {
+        final AtomicInteger outstanding = new AtomicInteger();
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+        final AtomicInteger ejections = new AtomicInteger();
+        volatile long ejectedUntilNanos;
+
+        boolean isEjected(long now) {
+            return ejectedUntilNanos != 0 && now - ejectedUntilNanos < 0;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.wallet_service.Config;
+
+import com.example.wallet_service.Client.LeastLoadedLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Per-service load balancer configuration, created in each service's own
+ * load balancer context. Deliberately not a @Configuration so component
+ * scanning does not pick it up for the main context.
+ */
+public class LeastLoadedLoadBalancerConfiguration {
+
+    // The probe goes straight to each instance's /actuator/health, so it uses a plain WebClient
+    @Bean
+    public ServiceInstanceListSupplier healthCheckedInstanceSupplier(ConfigurableApplicationContext context) {
+        return ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .withHealthChecks(WebClient.builder().build())
+                .build(context);
+    }
+
+    @Bean
+    public LeastLoadedLoadBalancer leastLoadedLoadBalancer(Environment environment,
+                                                           LoadBalancerClientFactory loadBalancerClientFactory) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LeastLoadedLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId,
+                environment.getProperty("load-balancer.outlier.consecutive-failures", Integer.class, 5),
+                environment.getProperty("load-balancer.outlier.base-ejection-seconds", Long.class, 30L),
+                environment.getProperty("load-balancer.outlier.max-ejection-percent", Integer.class, 50));
+    }
+}
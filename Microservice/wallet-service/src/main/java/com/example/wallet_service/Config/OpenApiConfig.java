@@ -23,7 +23,7 @@ public class OpenApiConfig {
                                                                 "Supports wallet creation, credit, withdrawal, transfer operations "
                                                                 +
                                                                 "with OTP verification via RabbitMQ integration. " +
-                                                                "\n\n**Note:** Add X-User-Id, X-User-Role, and X-User-Email headers for authentication.")
+                                                                "\n\n**Note:** X-User-Id, X-User-Role and X-User-Email are set by the API Gateway and only trusted with its X-User-Expires/X-User-Signature headers.")
                                                 .version("1.0.0")
                                                 .contact(new Contact()
                                                                 .name("E-Wallet Team")
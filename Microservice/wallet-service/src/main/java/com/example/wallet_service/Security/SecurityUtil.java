@@ -1,5 +1,6 @@
 package com.example.wallet_service.Security;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -9,9 +10,13 @@ import java.util.UUID;
 @Component
 public class SecurityUtil {
 
-    private static final String USER_ID_HEADER = "X-User-Id";
-    private static final String USER_ROLE_HEADER = "X-User-Role";
-    private static final String USER_EMAIL_HEADER = "X-User-Email";
+    private static final String USER_ID_HEADER = ForwardedHeaderSigner.USER_ID_HEADER;
+    private static final String USER_ROLE_HEADER = ForwardedHeaderSigner.USER_ROLE_HEADER;
+    private static final String USER_EMAIL_HEADER = ForwardedHeaderSigner.USER_EMAIL_HEADER;
+    private static final String VERIFIED_ATTR = SecurityUtil.class.getName() + ".verified";
+
+    @Autowired
+    private ForwardedHeaderSigner headerSigner;
 
     public UUID getCurrentUserId() {
         HttpServletRequest request = getRequest();
@@ -56,8 +61,18 @@ public class SecurityUtil {
         return getCurrentUserId() != null;
     }
 
+    // Unsigned identity headers are treated as missing
     private HttpServletRequest getRequest() {
         ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-        return attributes != null ? attributes.getRequest() : null;
+        if (attributes == null) {
+            return null;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        Boolean verified = (Boolean) request.getAttribute(VERIFIED_ATTR);
+        if (verified == null) {
+            verified = headerSigner.verify(request);
+            request.setAttribute(VERIFIED_ATTR, verified);
+        }
+        return verified ? request : null;
     }
 }
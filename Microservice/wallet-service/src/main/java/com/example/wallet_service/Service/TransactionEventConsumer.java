@@ -4,6 +4,7 @@ import com.example.wallet_service.Config.RabbitMQConfig;
 import com.example.wallet_service.DTO.OtpVerifiedEvent;
 import com.example.wallet_service.Exceptions.ResourceNotFoundException;
 import com.example.wallet_service.Exceptions.ValidationException;
+import com.example.wallet_service.Exceptions.ErrorCode;
 import com.example.wallet_service.Model.Wallet;
 import com.example.wallet_service.Repository.WalletRepo;
 import org.apache.logging.log4j.LogManager;
@@ -61,7 +62,7 @@ public class TransactionEventConsumer {
                             transactionId,
                             "FAILED",
                             "Insufficient balance");
-                    throw new ValidationException("Insufficient balance");
+                    throw new ValidationException(ErrorCode.INSUFFICIENT_BALANCE, "Insufficient balance");
                 }
 
                 senderWallet.setBalance(senderWallet.getBalance() - amount);
@@ -78,7 +79,7 @@ public class TransactionEventConsumer {
                             transactionId,
                             "FAILED",
                             "Insufficient balance");
-                    throw new ValidationException("Insufficient balance");
+                    throw new ValidationException(ErrorCode.INSUFFICIENT_BALANCE, "Insufficient balance");
                 }
 
                 senderWallet.setBalance(senderWallet.getBalance() - amount);
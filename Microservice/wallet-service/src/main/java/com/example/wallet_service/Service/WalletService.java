@@ -16,6 +16,7 @@ import com.example.wallet_service.DTO.WalletSummaryDTO;
 import com.example.wallet_service.Exceptions.DuplicateResourceException;
 import com.example.wallet_service.Exceptions.ResourceNotFoundException;
 import com.example.wallet_service.Exceptions.ValidationException;
+import com.example.wallet_service.Exceptions.ErrorCode;
 import com.example.wallet_service.Security.SecurityUtil;
 import com.example.wallet_service.Client.UserServiceClient;
 import java.time.LocalDateTime;
@@ -49,7 +50,7 @@ public class WalletService {
         UUID currentUserId = securityUtil.getCurrentUserId();
 
         if (currentUserId == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         List<Wallet> wallets;
@@ -73,7 +74,7 @@ public class WalletService {
         UUID currentUserId = securityUtil.getCurrentUserId();
 
         if (currentUserId == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         List<Wallet> wallets;
@@ -99,12 +100,12 @@ public class WalletService {
         UUID currentUserId = securityUtil.getCurrentUserId();
 
         if (currentUserId == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         if (!securityUtil.isAdmin()) {
             if (!wallet.getUserId().equals(currentUserId)) {
-                throw new ValidationException("Access denied: You can only access your own wallets");
+                throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: You can only access your own wallets");
             }
         }
 
@@ -171,14 +172,14 @@ public class WalletService {
         UUID currentUserId = securityUtil.getCurrentUserId();
 
         if (currentUserId == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         boolean isAdmin = securityUtil.isAdmin();
 
         if (!isAdmin) {
             if (!wallet.getUserId().equals(currentUserId)) {
-                throw new ValidationException("Access denied: You can only update your own wallets");
+                throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: You can only update your own wallets");
             }
         }
 
@@ -186,7 +187,7 @@ public class WalletService {
         if (walletUpdateDTO.getNewUserIdentifier() != null
                 && !walletUpdateDTO.getNewUserIdentifier().trim().isEmpty()) {
             if (!isAdmin) {
-                throw new ValidationException("You cannot change wallet ownership");
+                throw new ValidationException(ErrorCode.ACCESS_DENIED, "You cannot change wallet ownership");
             }
             UUID newUserId;
             try {
@@ -264,12 +265,12 @@ public class WalletService {
         UUID currentUserId = securityUtil.getCurrentUserId();
 
         if (currentUserId == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         if (!securityUtil.isAdmin()) {
             if (!wallet.getUserId().equals(currentUserId)) {
-                throw new ValidationException("Access denied: You can only delete your own wallets");
+                throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: You can only delete your own wallets");
             }
         }
 
@@ -284,7 +285,7 @@ public class WalletService {
         Double amount = creditRequestDTO.getAmount();
 
         if (amount == null || amount <= 0) {
-            throw new ValidationException("Amount must be greater than 0");
+            throw new ValidationException(ErrorCode.INVALID_AMOUNT, "Amount must be greater than 0");
         }
 
         Wallet wallet = walletRepo.findById(walletId)
@@ -293,16 +294,16 @@ public class WalletService {
 
         UUID currentUserId = securityUtil.getCurrentUserId();
         if (currentUserId == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         if (!wallet.getUserId().equals(currentUserId)) {
-            throw new ValidationException("Access denied: You can only credit your own wallets");
+            throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: You can only credit your own wallets");
         }
 
         // Verify entered passcode against hashed passcode in database
         if (!passwordEncoder.matches(creditRequestDTO.getPasscode(), wallet.getPasscode())) {
-            throw new ValidationException("Invalid passcode");
+            throw new ValidationException(ErrorCode.INVALID_PASSCODE, "Invalid passcode");
         }
 
         // Generate transaction ID
@@ -337,7 +338,7 @@ public class WalletService {
         Double amount = withdrawalRequestDTO.getAmount();
 
         if (amount == null || amount <= 0) {
-            throw new ValidationException("Amount must be greater than 0");
+            throw new ValidationException(ErrorCode.INVALID_AMOUNT, "Amount must be greater than 0");
         }
 
         Wallet wallet = walletRepo.findById(walletId)
@@ -346,20 +347,20 @@ public class WalletService {
 
         UUID currentUserId = securityUtil.getCurrentUserId();
         if (currentUserId == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         if (!wallet.getUserId().equals(currentUserId)) {
-            throw new ValidationException("Access denied: You can only withdraw from your own wallets");
+            throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: You can only withdraw from your own wallets");
         }
 
         // Verify entered passcode against hashed passcode in database
         if (!passwordEncoder.matches(withdrawalRequestDTO.getPasscode(), wallet.getPasscode())) {
-            throw new ValidationException("Invalid passcode");
+            throw new ValidationException(ErrorCode.INVALID_PASSCODE, "Invalid passcode");
         }
 
         if (wallet.getBalance() < amount) {
-            throw new ValidationException("Insufficient balance");
+            throw new ValidationException(ErrorCode.INSUFFICIENT_BALANCE, "Insufficient balance");
         }
 
         // Generate transaction ID
@@ -395,7 +396,7 @@ public class WalletService {
         Double amount = transferRequestDTO.getAmount();
 
         if (amount == null || amount <= 0) {
-            throw new ValidationException("Amount must be greater than 0");
+            throw new ValidationException(ErrorCode.INVALID_AMOUNT, "Amount must be greater than 0");
         }
 
         if (sourceWalletId.equals(destinationWalletId)) {
@@ -413,20 +414,20 @@ public class WalletService {
 
         UUID currentUserId = securityUtil.getCurrentUserId();
         if (currentUserId == null) {
-            throw new ValidationException("User not authenticated");
+            throw new ValidationException(ErrorCode.NOT_AUTHENTICATED, "User not authenticated");
         }
 
         if (!sourceWallet.getUserId().equals(currentUserId)) {
-            throw new ValidationException("Access denied: You can only transfer from your own wallets");
+            throw new ValidationException(ErrorCode.ACCESS_DENIED, "Access denied: You can only transfer from your own wallets");
         }
 
         // Verify entered passcode against hashed passcode in database
         if (!passwordEncoder.matches(transferRequestDTO.getPasscode(), sourceWallet.getPasscode())) {
-            throw new ValidationException("Invalid passcode");
+            throw new ValidationException(ErrorCode.INVALID_PASSCODE, "Invalid passcode");
         }
 
         if (sourceWallet.getBalance() < amount) {
-            throw new ValidationException("Insufficient balance");
+            throw new ValidationException(ErrorCode.INSUFFICIENT_BALANCE, "Insufficient balance");
         }
 
         // Generate transaction ID